@@ -1,13 +1,42 @@
 package com.friendavailability.controller;
 
+import com.friendavailability.dto.availability.AvailabilityHeatmapDto;
+import com.friendavailability.dto.availability.AvailabilityStatsDto;
+import com.friendavailability.dto.availability.BulkAvailabilityRequest;
+import com.friendavailability.dto.availability.BulkAvailabilityResponse;
+import com.friendavailability.dto.availability.CalendarChangesDto;
+import com.friendavailability.dto.availability.CalendarImportResponse;
+import com.friendavailability.dto.availability.CalendarSlotDto;
+import com.friendavailability.dto.availability.CommonFreeTimeRequest;
+import com.friendavailability.dto.availability.ConflictSlotDto;
 import com.friendavailability.dto.availability.CreateAvailabilityRequest;
+import com.friendavailability.dto.availability.DayBitmapDto;
+import com.friendavailability.dto.availability.FreeSlotDto;
+import com.friendavailability.dto.availability.FriendAvailabilityStatusDto;
+import com.friendavailability.dto.availability.HeatmapRequest;
+import com.friendavailability.dto.availability.MeetingSlotDto;
+import com.friendavailability.dto.availability.MeetingTimeRequest;
+import com.friendavailability.dto.availability.NextFreeSlotRequest;
+import com.friendavailability.dto.availability.OccurrenceOverrideRequest;
 import com.friendavailability.dto.availability.UpdateAvailabilityRequest;
 import com.friendavailability.model.Availability;
+import com.friendavailability.service.AvailabilityExportService;
+import com.friendavailability.service.AvailabilityImportService;
 import com.friendavailability.service.AvailabilityService;
+import com.friendavailability.service.FriendAvailabilityService;
+import com.friendavailability.service.GroupAvailabilityService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -18,9 +47,21 @@ import java.util.Optional;
 public class AvailabilityController {
 
     private final AvailabilityService availabilityService;
-
-    public AvailabilityController(AvailabilityService availabilityService) {
+    private final GroupAvailabilityService groupAvailabilityService;
+    private final FriendAvailabilityService friendAvailabilityService;
+    private final AvailabilityExportService availabilityExportService;
+    private final AvailabilityImportService availabilityImportService;
+
+    public AvailabilityController(AvailabilityService availabilityService,
+                                  GroupAvailabilityService groupAvailabilityService,
+                                  FriendAvailabilityService friendAvailabilityService,
+                                  AvailabilityExportService availabilityExportService,
+                                  AvailabilityImportService availabilityImportService) {
         this.availabilityService = availabilityService;
+        this.groupAvailabilityService = groupAvailabilityService;
+        this.friendAvailabilityService = friendAvailabilityService;
+        this.availabilityExportService = availabilityExportService;
+        this.availabilityImportService = availabilityImportService;
         System.out.println("AvailabilityController created and connected to AvailabilityService");
     }
 
@@ -38,7 +79,8 @@ public class AvailabilityController {
                     request.getLocation(),
                     request.getIsBusy(),
                     request.getIsAllDay(),
-                    request.getReminderMinutes()
+                    request.getReminderMinutes(),
+                    request.getRecurrenceRule()
             );
 
             return ResponseEntity.status(HttpStatus.CREATED).body(availability);
@@ -52,6 +94,27 @@ public class AvailabilityController {
         }
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkAvailabilityResponse> createAvailabilityBulk(@Valid @RequestBody BulkAvailabilityRequest request) {
+        System.out.println("Bulk creating availability: " + request);
+
+        try {
+            BulkAvailabilityResponse response = availabilityService.createAvailabilityBulk(
+                    request.getUserId(),
+                    request.getEvents(),
+                    Boolean.TRUE.equals(request.getSkipConflicts())
+            );
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error bulk creating availability: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error bulk creating availability: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Availability> updateAvailability(@PathVariable Long id,
                                                            @Valid @RequestBody UpdateAvailabilityRequest request) {
@@ -81,6 +144,36 @@ public class AvailabilityController {
         }
     }
 
+    @PostMapping("/{id}/occurrences")
+    public ResponseEntity<Availability> overrideOccurrence(@PathVariable Long id,
+                                                           @Valid @RequestBody OccurrenceOverrideRequest request) {
+        System.out.println("Overriding occurrence: " + request);
+
+        try {
+            Availability override = availabilityService.overrideOccurrence(
+                    id,
+                    request.getOriginalStartTime(),
+                    request.getStartTime(),
+                    request.getEndTime(),
+                    request.getTitle(),
+                    request.getDescription(),
+                    request.getLocation(),
+                    request.getIsBusy(),
+                    request.getIsAllDay(),
+                    request.getReminderMinutes()
+            );
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(override);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error overriding occurrence: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error overriding occurrence of availability " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteAvailability(@PathVariable Long id) {
         System.out.println("Deleting availability");
@@ -122,12 +215,19 @@ public class AvailabilityController {
     @GetMapping("/{userId}")
     public ResponseEntity<List<Availability>> getUserAvailability(@PathVariable Long userId,
                                                                   @RequestParam LocalDateTime start,
-                                                                  @RequestParam LocalDateTime end) {
+                                                                  @RequestParam LocalDateTime end,
+                                                                  @RequestParam(defaultValue = "false") boolean resolved,
+                                                                  WebRequest webRequest) {
         System.out.println("Getting stored availability from " + start + " to " + end);
 
         try {
-            List<Availability> availability = availabilityService.getCalendarView(userId, start, end);
-            return ResponseEntity.ok(availability);
+            String etag = availabilityService.getCalendarETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
+            List<Availability> availability = availabilityService.getCalendarView(userId, start, end, resolved);
+            return ResponseEntity.ok().eTag(etag).body(availability);
 
         } catch (RuntimeException e) {
             System.err.println("Business logic error getting availability: " + e.getMessage());
@@ -139,15 +239,22 @@ public class AvailabilityController {
     }
 
     @GetMapping("/{userId}/complete")
-    public ResponseEntity<List<Availability>> getCompleteCalendarView(@PathVariable Long userId,
+    public ResponseEntity<List<CalendarSlotDto>> getCompleteCalendarView(@PathVariable Long userId,
                                                                       @RequestParam LocalDateTime start,
-                                                                      @RequestParam LocalDateTime end) {
+                                                                      @RequestParam LocalDateTime end,
+                                                                      @RequestParam(defaultValue = "false") boolean resolved,
+                                                                      WebRequest webRequest) {
         System.out.println("Getting COMPLETE calendar view (with free time) from " + start + " to " + end);
 
         try {
-            List<Availability> completeView = availabilityService.getCompleteCalendarView(userId, start, end);
+            String etag = availabilityService.getCalendarETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
+            List<CalendarSlotDto> completeView = availabilityService.getCompleteCalendarView(userId, start, end, resolved);
             System.out.println("Returning " + completeView.size() + " total slots (stored events + implied free time)");
-            return ResponseEntity.ok(completeView);
+            return ResponseEntity.ok().eTag(etag).body(completeView);
 
         } catch (RuntimeException e) {
             System.err.println("Business logic error getting complete calendar view: " + e.getMessage());
@@ -161,12 +268,19 @@ public class AvailabilityController {
     @GetMapping("/{userId}/month")
     public ResponseEntity<List<Availability>> getMonthView(@PathVariable Long userId,
                                                            @RequestParam int year,
-                                                           @RequestParam int month) {
+                                                           @RequestParam int month,
+                                                           @RequestParam(defaultValue = "false") boolean resolved,
+                                                           WebRequest webRequest) {
         System.out.println("Getting month view for " + year + "/" + month);
 
         try {
-            List<Availability> monthView = availabilityService.getMonthView(userId, year, month);
-            return ResponseEntity.ok(monthView);
+            String etag = availabilityService.getCalendarETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
+            List<Availability> monthView = availabilityService.getMonthView(userId, year, month, resolved);
+            return ResponseEntity.ok().eTag(etag).body(monthView);
 
         } catch (RuntimeException e) {
             System.err.println("Business logic error getting month view: " + e.getMessage());
@@ -177,13 +291,45 @@ public class AvailabilityController {
         }
     }
 
+    @GetMapping("/{userId}/bitmap")
+    public ResponseEntity<List<DayBitmapDto>> getDayBitmaps(@PathVariable Long userId,
+                                                            @RequestParam LocalDate from,
+                                                            @RequestParam LocalDate to,
+                                                            WebRequest webRequest) {
+        System.out.println("Getting day bitmaps from " + from + " to " + to);
+
+        try {
+            String etag = availabilityService.getCalendarETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
+            List<DayBitmapDto> bitmaps = availabilityService.getDayBitmaps(userId, from, to);
+            return ResponseEntity.ok().eTag(etag).body(bitmaps);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting day bitmaps: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting day bitmaps for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{userId}/today")
-    public ResponseEntity<List<Availability>> getTodayView(@PathVariable Long userId) {
+    public ResponseEntity<List<Availability>> getTodayView(@PathVariable Long userId,
+                                                           @RequestParam(defaultValue = "false") boolean resolved,
+                                                           WebRequest webRequest) {
         System.out.println("Getting today's availability");
 
         try {
-            List<Availability> todayView = availabilityService.getTodayView(userId);
-            return ResponseEntity.ok(todayView);
+            String etag = availabilityService.getTodayETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
+            List<Availability> todayView = availabilityService.getTodayView(userId, resolved);
+            return ResponseEntity.ok().eTag(etag).body(todayView);
 
         } catch (RuntimeException e) {
             System.err.println("Business logic error getting today view: " + e.getMessage());
@@ -194,13 +340,76 @@ public class AvailabilityController {
         }
     }
 
+    @GetMapping("/{userId}/next-free")
+    public ResponseEntity<FreeSlotDto> getNextFreeSlot(@PathVariable Long userId,
+                                                       @RequestParam(required = false) LocalDateTime after,
+                                                       @RequestParam(required = false) Integer minDuration) {
+        System.out.println("Getting next free slot");
+
+        try {
+            Optional<FreeSlotDto> slot = availabilityService.findNextFreeSlot(userId, after, minDuration);
+            return slot.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting next free slot: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting next free slot for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{userId}/next-busy")
+    public ResponseEntity<CalendarSlotDto> getNextBusySlot(@PathVariable Long userId,
+                                                           @RequestParam(required = false) LocalDateTime after) {
+        System.out.println("Getting next busy slot");
+
+        try {
+            Optional<CalendarSlotDto> slot = availabilityService.findNextBusySlot(userId, after);
+            return slot.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting next busy slot: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting next busy slot for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/next-free")
+    public ResponseEntity<Map<Long, FreeSlotDto>> getNextFreeSlots(@Valid @RequestBody NextFreeSlotRequest request) {
+        System.out.println("Getting next free slots: " + request);
+
+        try {
+            Map<Long, FreeSlotDto> slots = availabilityService.findNextFreeSlots(
+                    request.getUserIds(),
+                    request.getAfter(),
+                    request.getMinDurationMinutes()
+            );
+            return ResponseEntity.ok(slots);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting next free slots: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting next free slots: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{userId}/all")
-    public ResponseEntity<List<Availability>> getAllUserAvailability(@PathVariable Long userId) {
+    public ResponseEntity<List<Availability>> getAllUserAvailability(@PathVariable Long userId, WebRequest webRequest) {
         System.out.println("Getting all availability for user");
 
         try {
+            String etag = availabilityService.getCalendarETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
             List<Availability> allAvailability = availabilityService.getAllUserAvailability(userId);
-            return ResponseEntity.ok(allAvailability);
+            return ResponseEntity.ok().eTag(etag).body(allAvailability);
 
         } catch (RuntimeException e) {
             System.err.println("Business logic error getting all availability: " + e.getMessage());
@@ -211,6 +420,67 @@ public class AvailabilityController {
         }
     }
 
+    @GetMapping("/{userId}/changes")
+    public ResponseEntity<CalendarChangesDto> getChanges(@PathVariable Long userId, @RequestParam long since) {
+        System.out.println("Getting calendar changes since version " + since);
+
+        try {
+            CalendarChangesDto changes = availabilityService.getChanges(userId, since);
+            return ResponseEntity.ok(changes);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting calendar changes: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting calendar changes for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{userId}/export.ics")
+    public ResponseEntity<StreamingResponseBody> exportCalendar(@PathVariable Long userId, WebRequest webRequest) {
+        System.out.println("Exporting calendar for user " + userId);
+
+        try {
+            String etag = availabilityService.getCalendarETag(userId);
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+
+            StreamingResponseBody body = availabilityExportService.exportCalendar(userId);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"availability-" + userId + ".ics\"")
+                    .body(body);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error exporting calendar: " + e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            System.err.println("Error exporting calendar for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/{userId}/import.ics")
+    public ResponseEntity<CalendarImportResponse> importCalendar(@PathVariable Long userId,
+                                                                 @RequestParam("file") MultipartFile file) {
+        System.out.println("Importing calendar for user " + userId + ": " + file.getOriginalFilename());
+
+        try (InputStream input = file.getInputStream()) {
+            CalendarImportResponse response = availabilityImportService.importCalendar(userId, input);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error importing calendar: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error importing calendar for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{userId}/upcoming")
     public ResponseEntity<List<Availability>> getUpcomingEvents(@PathVariable Long userId) {
         System.out.println("Getting upcoming events");
@@ -239,12 +509,52 @@ public class AvailabilityController {
         }
     }
 
+    @GetMapping("/{userId}/conflicts")
+    public ResponseEntity<List<ConflictSlotDto>> getConflicts(@PathVariable Long userId,
+                                                              @RequestParam LocalDateTime start,
+                                                              @RequestParam LocalDateTime end,
+                                                              @RequestParam(required = false) Long excludeId) {
+        System.out.println("Getting conflicts from " + start + " to " + end);
+
+        try {
+            List<ConflictSlotDto> conflicts = availabilityService.checkConflicts(userId, start, end, excludeId);
+            return ResponseEntity.ok(conflicts);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting conflicts: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting conflicts for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{userId}/conflicts/exists")
+    public ResponseEntity<Map<String, Boolean>> hasConflicts(@PathVariable Long userId,
+                                                             @RequestParam LocalDateTime start,
+                                                             @RequestParam LocalDateTime end,
+                                                             @RequestParam(required = false) Long excludeId) {
+        System.out.println("Checking for conflicts from " + start + " to " + end);
+
+        try {
+            boolean hasConflicts = availabilityService.hasConflicts(userId, start, end, excludeId);
+            return ResponseEntity.ok(Map.of("hasConflicts", hasConflicts));
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error checking conflicts: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error checking conflicts for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{userId}/stats")
-    public ResponseEntity<Map<String, Long>> getAvailabilityStatistics(@PathVariable Long userId) {
+    public ResponseEntity<AvailabilityStatsDto> getAvailabilityStatistics(@PathVariable Long userId) {
         System.out.println("Getting availability statistics");
 
         try {
-            Map<String, Long> stats = availabilityService.getAvailabilityStatistics(userId);
+            AvailabilityStatsDto stats = availabilityService.getAvailabilityStatistics(userId);
             return ResponseEntity.ok(stats);
 
         } catch (Exception e) {
@@ -252,4 +562,112 @@ public class AvailabilityController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/common-free")
+    public ResponseEntity<List<FreeSlotDto>> getCommonFreeTime(@Valid @RequestBody CommonFreeTimeRequest request) {
+        System.out.println("Getting common free time: " + request);
+
+        try {
+            List<FreeSlotDto> freeSlots = groupAvailabilityService.findCommonFreeTime(
+                    request.getUserIds(),
+                    request.getStart(),
+                    request.getEnd(),
+                    request.getMinDurationMinutes()
+            );
+            return ResponseEntity.ok(freeSlots);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting common free time: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting common free time: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/heatmap")
+    public ResponseEntity<AvailabilityHeatmapDto> getAvailabilityHeatmap(@Valid @RequestBody HeatmapRequest request) {
+        System.out.println("Getting availability heatmap: " + request);
+
+        try {
+            AvailabilityHeatmapDto heatmap = groupAvailabilityService.getAvailabilityHeatmap(
+                    request.getUserIds(),
+                    request.getChatRoomId(),
+                    request.getFrom(),
+                    request.getTo()
+            );
+            return ResponseEntity.ok(heatmap);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting availability heatmap: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting availability heatmap: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/meeting-times")
+    public ResponseEntity<List<MeetingSlotDto>> findBestMeetingTimes(@Valid @RequestBody MeetingTimeRequest request) {
+        System.out.println("Finding best meeting times: " + request);
+
+        try {
+            List<MeetingSlotDto> suggestions = groupAvailabilityService.findBestMeetingTimes(
+                    request.getUserIds(),
+                    request.getChatRoomId(),
+                    request.getStart(),
+                    request.getEnd(),
+                    request.getDurationMinutes(),
+                    request.getPreferredStartTime(),
+                    request.getPreferredEndTime(),
+                    request.getLimit()
+            );
+            return ResponseEntity.ok(suggestions);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error finding meeting times: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error finding meeting times: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/friends/{userId}/now")
+    public ResponseEntity<List<FriendAvailabilityStatusDto>> getFriendsAvailabilityNow(@PathVariable Long userId) {
+        System.out.println("Getting current availability of friends");
+
+        try {
+            List<FriendAvailabilityStatusDto> statuses = friendAvailabilityService.getFriendsAvailabilityNow(userId);
+            return ResponseEntity.ok(statuses);
+
+        } catch (Exception e) {
+            System.err.println("Error getting friends availability for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/friends/{userId}/range")
+    public ResponseEntity<List<FriendAvailabilityStatusDto>> getFriendsAvailability(@PathVariable Long userId,
+                                                                                    @RequestParam LocalDateTime start,
+                                                                                    @RequestParam LocalDateTime end) {
+        System.out.println("Getting friends availability from " + start + " to " + end);
+
+        try {
+            List<FriendAvailabilityStatusDto> statuses = friendAvailabilityService.getFriendsAvailability(userId, start, end);
+            return ResponseEntity.ok(statuses);
+
+        } catch (RuntimeException e) {
+            System.err.println("Business logic error getting friends availability: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error getting friends availability for user " + userId + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /** 304 for a calendar GET whose If-None-Match still matches the user's calendar version. */
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
@@ -9,6 +9,7 @@ import com.friendavailability.service.MessageService;
 import com.friendavailability.service.UserService;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -186,6 +187,26 @@ public class ChatManagementController {
         }
     }
 
+    @GetMapping("/rooms/{roomId}/messages/history")
+    public ResponseEntity<?> getMessageHistoryBefore(@PathVariable Long roomId, @RequestParam Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Slice<Message> slice = messageService.getMessageHistoryBefore(roomId, userId, before, size);
+            return ResponseEntity.ok(MessageHistoryDto.builder()
+                    .messages(slice.getContent())
+                    .hasMore(slice.hasNext())
+                    .nextCursor(MessageService.nextCursor(slice))
+                    .size(slice.getNumberOfElements())
+                    .build());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", e.getMessage(),
+                "errorCode", "GET_MESSAGES_FAILED"
+            ));
+        }
+    }
+
     @GetMapping("/rooms/{roomId}/messages/recent")
     public ResponseEntity<?> getRecentMessages(@PathVariable Long roomId,
                                              @RequestParam Long userId,
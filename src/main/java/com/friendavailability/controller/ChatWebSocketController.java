@@ -4,7 +4,8 @@ import com.friendavailability.dto.chat.*;
 import com.friendavailability.model.Message;
 import com.friendavailability.service.ChatService;
 import com.friendavailability.service.MessageService;
-import com.friendavailability.service.UserService;
+import com.friendavailability.service.TypingIndicatorService;
+import com.friendavailability.service.UserDisplayNameCache;
 
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -21,16 +22,19 @@ public class ChatWebSocketController {
     private final MessageService messageService;
     private final ChatService chatService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final UserService userService;
+    private final TypingIndicatorService typingIndicatorService;
+    private final UserDisplayNameCache displayNames;
 
     public ChatWebSocketController(MessageService messageService, 
                                  ChatService chatService,
                                  SimpMessagingTemplate messagingTemplate, 
-                                 UserService userService) {
+                                 TypingIndicatorService typingIndicatorService,
+                                 UserDisplayNameCache displayNames) {
         this.messageService = messageService;
         this.chatService = chatService;
         this.messagingTemplate = messagingTemplate;
-        this.userService = userService;
+        this.typingIndicatorService = typingIndicatorService;
+        this.displayNames = displayNames;
     }
 
     @MessageMapping("/chat.sendMessage")
@@ -45,7 +49,7 @@ public class ChatWebSocketController {
             MessageResponseDto response = MessageResponseDto.builder()
                 .id(savedMessage.getId())
                 .senderId(savedMessage.getSenderId())
-                .senderName(savedMessage.getSenderName())
+                .senderName(getSenderName(savedMessage.getSenderId()))
                 .roomId(savedMessage.getChatRoomId())
                 .content(savedMessage.getContent())
                 .messageType(savedMessage.getMessageType().toString())
@@ -54,6 +58,7 @@ public class ChatWebSocketController {
             
             String destination = "/topic/chat/" + chatMessage.getRoomId();
             messagingTemplate.convertAndSend(destination, response);
+            typingIndicatorService.stopTyping(chatMessage.getSenderId(), chatMessage.getRoomId());
             
         } catch (Exception e) {
             sendErrorToUser(chatMessage.getSenderId(), "MESSAGE_SEND_FAILED", 
@@ -64,7 +69,7 @@ public class ChatWebSocketController {
     @MessageMapping("/chat.connectToChat")
     public void connectToChat(@Payload UserJoinDto userJoin) {
         try {
-            chatService.getChatRoom(userJoin.getRoomId(), userJoin.getUserId());
+            chatService.requireActiveMember(userJoin.getRoomId(), userJoin.getUserId());
 
             String userName = getSenderName(userJoin.getUserId());
             String systemContent = userName + " joined the chat";
@@ -137,21 +142,7 @@ public class ChatWebSocketController {
     @MessageMapping("/chat.typing")
     public void handleTyping(@Payload TypingIndicatorDto typingData) {
         try {
-            chatService.getChatRoom(typingData.getRoomId(), typingData.getUserId());
-
-            String userName = getSenderName(typingData.getUserId());
-
-            TypingResponseDto typingResponse = TypingResponseDto.builder()
-                .userId(typingData.getUserId())
-                .userName(userName)
-                .roomId(typingData.getRoomId())
-                .isTyping(typingData.isTyping()) 
-                .timestamp(LocalDateTime.now())
-                .build();
-            
-            String destination = "/topic/chat/" + typingData.getRoomId() + "/typing";
-            messagingTemplate.convertAndSend(destination, typingResponse);
-            
+            typingIndicatorService.onTyping(typingData.getUserId(), typingData.getRoomId(), typingData.isTyping());
         } catch (Exception e) {
             System.err.println("Error handling typing indicator: " + e.getMessage());
         }
@@ -160,7 +151,7 @@ public class ChatWebSocketController {
     @MessageMapping("/chat.markAsRead")
     public void markAsRead(@Payload MessageReadDto readData) {
         try {
-            chatService.getChatRoom(readData.getRoomId(), readData.getUserId());
+            // markMessagesAsRead checks membership itself
             messageService.markMessagesAsRead(readData.getRoomId(), readData.getUserId());
 
             ReadReceiptDto readReceipt = ReadReceiptDto.builder()
@@ -188,7 +179,7 @@ public class ChatWebSocketController {
     }
 
     private String getSenderName(Long userId) {
-        return userService.findUserById(userId).get().getName();
+        return displayNames.nameOf(userId);
     }
 
     private void sendErrorToUser(Long userId, String errorCode, String errorMessage) {
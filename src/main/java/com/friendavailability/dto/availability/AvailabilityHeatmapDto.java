@@ -0,0 +1,26 @@
+package com.friendavailability.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * How many participants are free in each UTC hour of [from, to]. {@code free[d][h]} is the
+ * count for hour {@code h} of day {@code from + d}; a participant with any busy time in an
+ * hour is not counted as free for it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityHeatmapDto {
+    private LocalDate from;
+    private LocalDate to;
+    private int participantCount;
+    private List<Long> participantIds;
+    private int[][] free;
+}
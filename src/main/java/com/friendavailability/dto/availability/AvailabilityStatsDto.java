@@ -0,0 +1,29 @@
+package com.friendavailability.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dashboard statistics for one user. Times are UTC; the free slot fields are null when the
+ * user is busy for the whole look-ahead window.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityStatsDto {
+    private Long userId;
+    private long totalEvents;
+    private long freeTimeSlots;
+    private long busyTimeSlots;
+    private long busyMinutesThisWeek;
+    private LocalDateTime nextFreeSlotStart;
+    private LocalDateTime nextFreeSlotEnd;
+    private LocalDateTime longestFreeBlockStart;
+    private LocalDateTime longestFreeBlockEnd;
+    private long longestFreeBlockMinutes;
+}
@@ -0,0 +1,33 @@
+package com.friendavailability.dto.availability;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkAvailabilityRequest {
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    // Per-event userId is ignored; every event is created for the request's user
+    @NotEmpty(message = "At least one event is required")
+    private List<CreateAvailabilityRequest> events;
+
+    private Boolean skipConflicts;
+
+    @Override
+    public String toString() {
+        return "BulkAvailabilityRequest{" +
+                "userId=" + userId +
+                ", events=" + (events != null ? events.size() : 0) +
+                ", skipConflicts=" + skipConflicts +
+                '}';
+    }
+}
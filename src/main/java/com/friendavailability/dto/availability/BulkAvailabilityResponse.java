@@ -0,0 +1,21 @@
+package com.friendavailability.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAvailabilityResponse {
+    private Long userId;
+    private int received;
+    private int created;
+    private int conflicts;
+    private int skipped;
+    private List<Long> createdIds;
+}
@@ -0,0 +1,25 @@
+package com.friendavailability.dto.availability;
+
+import com.friendavailability.model.Availability;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Availability rows written or deleted between two calendar versions of a user.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarChangesDto {
+    private Long userId;
+    private long since;
+    private long version;
+    private boolean resyncRequired;
+    private List<Availability> changed;
+    private List<Long> deletedIds;
+}
@@ -0,0 +1,19 @@
+package com.friendavailability.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarImportResponse {
+    private Long userId;
+    private int parsed;
+    private int imported;
+    private int duplicates;
+    private int skipped;
+    private int malformed;
+}
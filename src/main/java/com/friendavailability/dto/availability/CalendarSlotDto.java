@@ -0,0 +1,73 @@
+package com.friendavailability.dto.availability;
+
+import com.friendavailability.model.Availability;
+import com.friendavailability.model.AvailabilitySource;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Lightweight calendar entry used by the complete calendar view. Stored events and
+ * implied free time share this shape; implied slots have no id and {@code implied = true}.
+ *
+ * Start and end are wall-clock times in {@code timezone}: the event's own zone for stored
+ * events, UTC for implied free time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarSlotDto {
+    private Long id;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String timezone;
+    private String title;
+    private String description;
+    private String location;
+    private Boolean isBusy;
+    private Boolean isAllDay;
+    private AvailabilitySource source;
+    private boolean implied;
+
+    public static CalendarSlotDto fromAvailability(Availability availability) {
+        return CalendarSlotDto.builder()
+                .id(availability.getId())
+                .startTime(availability.getStartTime())
+                .endTime(availability.getEndTime())
+                .timezone(zoneName(availability.getTimezone()))
+                .title(availability.getTitle())
+                .description(availability.getDescription())
+                .location(availability.getLocation())
+                .isBusy(availability.getIsBusy())
+                .isAllDay(availability.getIsAllDay())
+                .source(availability.getSource())
+                .implied(false)
+                .build();
+    }
+
+    public static CalendarSlotDto impliedFree(LocalDateTime startTime, LocalDateTime endTime) {
+        return CalendarSlotDto.builder()
+                .startTime(startTime)
+                .endTime(endTime)
+                .timezone("UTC")
+                .title("Available")
+                .description("Implied free time")
+                .isBusy(false)
+                .isAllDay(false)
+                .source(AvailabilitySource.MANUAL)
+                .implied(true)
+                .build();
+    }
+
+    /** The zone the event's times are read in, as {@link Availability#zoneOf} resolves it. */
+    private static String zoneName(String timezone) {
+        ZoneId zone = Availability.zoneOf(timezone);
+        return zone.equals(ZoneOffset.UTC) ? "UTC" : zone.getId();
+    }
+}
@@ -0,0 +1,37 @@
+package com.friendavailability.dto.availability;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class CommonFreeTimeRequest {
+
+    @NotEmpty(message = "At least one user ID is required")
+    private List<Long> userIds;
+
+    @NotNull(message = "Start time is required")
+    private LocalDateTime start;
+
+    @NotNull(message = "End time is required")
+    private LocalDateTime end;
+
+    private Integer minDurationMinutes;
+
+    @Override
+    public String toString() {
+        return "CommonFreeTimeRequest{" +
+                "userIds=" + userIds +
+                ", start=" + start +
+                ", end=" + end +
+                ", minDurationMinutes=" + minDurationMinutes +
+                '}';
+    }
+}
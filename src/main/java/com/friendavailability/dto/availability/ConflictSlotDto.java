@@ -0,0 +1,21 @@
+package com.friendavailability.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id and time bounds of a busy event that overlaps a requested range.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictSlotDto {
+    private Long id;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
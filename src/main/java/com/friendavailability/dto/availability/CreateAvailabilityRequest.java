@@ -29,6 +29,7 @@ public class CreateAvailabilityRequest {
     private Boolean isBusy;
     private Boolean isAllDay;
     private Integer reminderMinutes;
+    private String recurrenceRule;
 
     public CreateAvailabilityRequest(Long userId, LocalDateTime startTime, LocalDateTime endTime, String title) {
         this.userId = userId;
@@ -46,6 +47,7 @@ public class CreateAvailabilityRequest {
                 ", title='" + title + '\'' +
                 ", isBusy=" + isBusy +
                 ", isAllDay=" + isAllDay +
+                ", recurrenceRule='" + recurrenceRule + '\'' +
                 '}';
     }
 }
\ No newline at end of file
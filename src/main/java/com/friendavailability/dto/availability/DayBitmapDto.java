@@ -0,0 +1,21 @@
+package com.friendavailability.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Busy buckets of a single day at 15-minute granularity, encoded as 24 hex characters
+ * (one per hour, lowest bit = first quarter hour).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayBitmapDto {
+    private LocalDate date;
+    private String busy;
+}
@@ -0,0 +1,22 @@
+package com.friendavailability.dto.availability;
+
+import com.friendavailability.model.Availability;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FriendAvailabilityStatusDto {
+    private Long friendId;
+    private String friendName;
+    private Boolean isBusy;
+    private LocalDateTime busyUntil;
+    private List<Availability> events;
+}
@@ -0,0 +1,36 @@
+package com.friendavailability.dto.availability;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class HeatmapRequest {
+
+    // Participants are these users plus the active members of chatRoomId; at least one is required
+    private List<Long> userIds;
+
+    private Long chatRoomId;
+
+    @NotNull(message = "From date is required")
+    private LocalDate from;
+
+    @NotNull(message = "To date is required")
+    private LocalDate to;
+
+    @Override
+    public String toString() {
+        return "HeatmapRequest{" +
+                "userIds=" + userIds +
+                ", chatRoomId=" + chatRoomId +
+                ", from=" + from +
+                ", to=" + to +
+                '}';
+    }
+}
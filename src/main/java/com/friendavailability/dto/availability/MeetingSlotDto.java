@@ -0,0 +1,25 @@
+package com.friendavailability.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A suggested meeting time, with who can attend and how far it falls outside the preferred hours.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeetingSlotDto {
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private int availableCount;
+    private int participantCount;
+    private List<Long> availableUserIds;
+    private long minutesFromPreferred;
+}
@@ -0,0 +1,50 @@
+package com.friendavailability.dto.availability;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class MeetingTimeRequest {
+
+    // Participants are these users plus the active members of chatRoomId; at least one is required
+    private List<Long> userIds;
+
+    private Long chatRoomId;
+
+    @NotNull(message = "Start time is required")
+    private LocalDateTime start;
+
+    @NotNull(message = "End time is required")
+    private LocalDateTime end;
+
+    @NotNull(message = "Duration is required")
+    private Integer durationMinutes;
+
+    private LocalTime preferredStartTime;
+
+    private LocalTime preferredEndTime;
+
+    private Integer limit;
+
+    @Override
+    public String toString() {
+        return "MeetingTimeRequest{" +
+                "userIds=" + userIds +
+                ", chatRoomId=" + chatRoomId +
+                ", start=" + start +
+                ", end=" + end +
+                ", durationMinutes=" + durationMinutes +
+                ", preferredStartTime=" + preferredStartTime +
+                ", preferredEndTime=" + preferredEndTime +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -0,0 +1,31 @@
+package com.friendavailability.dto.availability;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class NextFreeSlotRequest {
+
+    @NotEmpty(message = "At least one user ID is required")
+    private List<Long> userIds;
+
+    private LocalDateTime after;
+
+    private Integer minDurationMinutes;
+
+    @Override
+    public String toString() {
+        return "NextFreeSlotRequest{" +
+                "userIds=" + userIds +
+                ", after=" + after +
+                ", minDurationMinutes=" + minDurationMinutes +
+                '}';
+    }
+}
@@ -0,0 +1,25 @@
+package com.friendavailability.dto.availability;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class OccurrenceOverrideRequest extends UpdateAvailabilityRequest {
+
+    @NotNull(message = "Original start time is required")
+    private LocalDateTime originalStartTime;
+
+    @Override
+    public String toString() {
+        return "OccurrenceOverrideRequest{" +
+                "originalStartTime=" + originalStartTime +
+                ", " + super.toString() +
+                '}';
+    }
+}
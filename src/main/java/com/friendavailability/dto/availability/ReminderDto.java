@@ -0,0 +1,22 @@
+package com.friendavailability.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderDto {
+    private Long availabilityId;
+    private String title;
+    private String location;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer reminderMinutes;
+    private LocalDateTime sentAt;
+}
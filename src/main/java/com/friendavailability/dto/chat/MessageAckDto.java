@@ -0,0 +1,28 @@
+package com.friendavailability.dto.chat;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sent to the sender on {@code /user/queue/acks} once a broadcast message has been written
+ * ({@code PERSISTED}) or could not be written ({@code FAILED}).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageAckDto {
+    // Sent as a string, like MessageResponseDto.id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private Long messageId;
+    private Long roomId;
+    private String status;
+    private String error;
+    private LocalDateTime timestamp;
+}
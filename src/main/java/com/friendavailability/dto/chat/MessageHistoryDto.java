@@ -0,0 +1,26 @@
+package com.friendavailability.dto.chat;
+
+import com.friendavailability.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of chat history, newest first
+ *
+ * Pass nextCursor back as "before" to load older messages; it is null on the oldest page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageHistoryDto {
+
+    private List<Message> messages;
+    private boolean hasMore;
+    private String nextCursor;
+    private int size;
+}
@@ -1,5 +1,7 @@
 package com.friendavailability.dto.chat;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import java.time.LocalDateTime;
 
 import lombok.AllArgsConstructor;
@@ -12,6 +14,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class MessageResponseDto {
+    // Snowflake ids exceed 2^53, so they are sent as strings to survive JavaScript numbers
+    @JsonSerialize(using = ToStringSerializer.class)
     private Long id;
     private Long senderId;
     private String senderName;
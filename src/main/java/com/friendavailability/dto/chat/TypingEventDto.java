@@ -5,23 +5,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-
 /**
- * DTO for typing indicator responses to frontend
- * 
+ * Compact typing indicator broadcast by TypingIndicatorService
+ *
  * Broadcast to: /topic/chat/{roomId}/typing
- * Contains user info and typing status for UI display
+ * The room is implied by the topic, so only the user and their state are sent
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class TypingResponseDto {
-    
+public class TypingEventDto {
+
     private Long userId;
     private String userName;
-    private Long roomId;
     private boolean isTyping;
-    private LocalDateTime timestamp;
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.friendavailability.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A past availability row moved out of the hot {@code availabilities} table. Rows keep their
+ * original id and columns, so they can be copied with a plain INSERT ... SELECT.
+ */
+@Entity
+@Table(name = "availability_archive",
+        indexes = {
+                @Index(name = "idx_archive_user_epoch", columnList = "user_id, start_epoch, end_epoch"),
+                @Index(name = "idx_archive_user_start", columnList = "user_id, start_time, id"),
+                @Index(name = "idx_archive_user_external", columnList = "user_id, external_id")
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedAvailability {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "timezone", nullable = false, length = 50)
+    private String timezone;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source", nullable = false, length = 20)
+    private AvailabilitySource source;
+
+    @Column(name = "google_event_id", length = 255)
+    private String googleEventId;
+
+    @Column(name = "external_id", length = 255)
+    private String externalId;
+
+    @Column(name = "is_busy", nullable = false)
+    private Boolean isBusy;
+
+    @Column(name = "title", length = 200)
+    private String title;
+
+    @Column(name = "description", length = 500)
+    private String description;
+
+    @Column(name = "is_recurring", nullable = false)
+    private Boolean isRecurring;
+
+    @Column(name = "recurrence_rule", length = 255)
+    private String recurrenceRule;
+
+    @Column(name = "recurrence_parent_id")
+    private Long recurrenceParentId;
+
+    @Column(name = "original_start_time")
+    private LocalDateTime originalStartTime;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "location", length = 500)
+    private String location;
+
+    @Column(name = "is_all_day", nullable = false)
+    private Boolean isAllDay;
+
+    @Column(name = "reminder_minutes")
+    private Integer reminderMinutes;
+
+    @Column(name = "reminder_at")
+    private LocalDateTime reminderAt;
+
+    @Column(name = "change_version")
+    private Long changeVersion;
+
+    @Column(name = "start_epoch")
+    private Long startEpoch;
+
+    @Column(name = "end_epoch")
+    private Long endEpoch;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    /** The archived row as a detached availability owned by {@code user}. */
+    public Availability toAvailability(User user) {
+        return Availability.builder()
+                .id(id)
+                .user(user)
+                .userId(userId)
+                .startTime(startTime)
+                .endTime(endTime)
+                .timezone(timezone)
+                .source(source)
+                .googleEventId(googleEventId)
+                .externalId(externalId)
+                .isBusy(isBusy)
+                .title(title)
+                .description(description)
+                .isRecurring(isRecurring)
+                .recurrenceRule(recurrenceRule)
+                .recurrenceParentId(recurrenceParentId)
+                .originalStartTime(originalStartTime)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .location(location)
+                .isAllDay(isAllDay)
+                .reminderMinutes(reminderMinutes)
+                .reminderAt(reminderAt)
+                .changeVersion(changeVersion)
+                .startEpoch(startEpoch)
+                .endEpoch(endEpoch)
+                .build();
+    }
+}
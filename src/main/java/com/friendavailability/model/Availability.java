@@ -8,8 +8,11 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 
 @Entity
 @Table(name = "availabilities",
@@ -17,13 +20,19 @@ import java.time.LocalDateTime;
                 @Index(name = "idx_availability_user_id", columnList = "user_id"),
                 @Index(name = "idx_availability_start_time", columnList = "start_time"),
                 @Index(name = "idx_availability_end_time", columnList = "end_time"),
-                @Index(name = "idx_availability_time_range", columnList = "start_time, end_time")
+                @Index(name = "idx_availability_time_range", columnList = "start_time, end_time"),
+                @Index(name = "idx_availability_recurrence_parent", columnList = "recurrence_parent_id"),
+                @Index(name = "idx_availability_reminder_at", columnList = "reminder_at"),
+                @Index(name = "idx_availability_user_external", columnList = "user_id, external_id"),
+                @Index(name = "idx_availability_user_version", columnList = "user_id, change_version"),
+                @Index(name = "idx_availability_user_epoch", columnList = "user_id, start_epoch, end_epoch"),
+                @Index(name = "idx_availability_series_end", columnList = "is_recurring, series_end_epoch")
         }
 )
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class Availability {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,6 +44,9 @@ public class Availability {
     @JsonIgnore
     private User user;
 
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private Long userId;
+
     @NotNull(message = "Start time is required")
     @Column(name = "start_time", nullable = false)
     private LocalDateTime startTime;
@@ -55,6 +67,10 @@ public class Availability {
     @Column(name = "google_event_id", length = 255)
     private String googleEventId;
 
+    // iCalendar UID of imported events, used to skip events that were already imported
+    @Column(name = "external_id", length = 255)
+    private String externalId;
+
     @Column(name = "is_busy", nullable = false)
     @Builder.Default
     private Boolean isBusy = false;
@@ -72,6 +88,14 @@ public class Availability {
     @Column(name = "recurrence_rule", length = 255)
     private String recurrenceRule;
 
+    // Set on OVERRIDE rows: the recurring master and the occurrence this row replaces. Imported
+    // occurrences whose series was never found keep originalStartTime without a parent.
+    @Column(name = "recurrence_parent_id")
+    private Long recurrenceParentId;
+
+    @Column(name = "original_start_time")
+    private LocalDateTime originalStartTime;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -91,8 +115,33 @@ public class Availability {
     @Builder.Default
     private Integer reminderMinutes = 30;
 
+    // startTime and endTime as UTC epoch seconds, so range queries compare instants across time zones
+    @JsonIgnore
+    @Column(name = "start_epoch")
+    private Long startEpoch;
+
+    @JsonIgnore
+    @Column(name = "end_epoch")
+    private Long endEpoch;
+
+    // startTime - reminderMinutes in UTC, kept in a column so due reminders can be range-scanned
+    @JsonIgnore
+    @Column(name = "reminder_at")
+    private LocalDateTime reminderAt;
+
+    // UTC epoch seconds at which the last occurrence of a recurring master ends (or a later bound);
+    // null for open-ended series and single events
+    @JsonIgnore
+    @Column(name = "series_end_epoch")
+    private Long seriesEndEpoch;
+
+    // Per-user calendar version of the last write to this row, used for delta sync
+    @Column(name = "change_version")
+    private Long changeVersion;
+
     public Availability(User user, LocalDateTime startTime, LocalDateTime endTime, Boolean isBusy) {
         this.user = user;
+        this.userId = user.getId();
         this.startTime = startTime;
         this.endTime = endTime;
         this.isBusy = isBusy;
@@ -134,11 +183,63 @@ public class Availability {
         if (this.reminderMinutes == null) {
             this.reminderMinutes = 30;
         }
+        refreshDerivedTimes();
     }
 
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
+        refreshDerivedTimes();
+    }
+
+    /** The owner's id, read from the column or the (possibly uninitialized) user proxy. */
+    public Long getUserId() {
+        if (userId == null && user != null) {
+            userId = user.getId();
+        }
+        return userId;
+    }
+
+    /** Recomputes the UTC columns derived from the zone-local start time, end time and reminder. */
+    public void refreshDerivedTimes() {
+        this.startEpoch = startTime != null ? epochOf(startTime, timezone) : null;
+        this.endEpoch = endTime != null ? epochOf(endTime, timezone) : null;
+        this.reminderAt = startEpoch != null && reminderMinutes != null
+                ? LocalDateTime.ofEpochSecond(startEpoch - reminderMinutes * 60L, 0, ZoneOffset.UTC)
+                : null;
+        this.seriesEndEpoch = isRecurringMaster() && startTime != null && endTime != null
+                ? seriesEndEpochOf(recurrenceRule, startTime, endTime, timezone)
+                : null;
+    }
+
+    /** See {@link #seriesEndEpoch}; rules that cannot be parsed are treated as open-ended. */
+    public static Long seriesEndEpochOf(String recurrenceRule, LocalDateTime startTime, LocalDateTime endTime,
+                                        String timezone) {
+        try {
+            LocalDateTime lastStart = RecurrenceRule.parse(recurrenceRule, zoneOf(timezone)).lastStart(startTime);
+            if (lastStart == null) {
+                return null;
+            }
+            return epochOf(lastStart, timezone) + epochOf(endTime, timezone) - epochOf(startTime, timezone);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** UTC epoch seconds of a wall-clock time in the given zone; unknown zones are read as UTC. */
+    public static long epochOf(LocalDateTime time, String timezone) {
+        return time.atZone(zoneOf(timezone)).toEpochSecond();
+    }
+
+    public static ZoneId zoneOf(String timezone) {
+        if (timezone == null || timezone.isEmpty() || timezone.equals("UTC")) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            return ZoneOffset.UTC;
+        }
     }
 
     public boolean isValidTimeRange(){
@@ -191,8 +292,16 @@ public class Availability {
         return getDurationInMinutes() / 60;
     }
 
+    public boolean isRecurringMaster() {
+        return Boolean.TRUE.equals(isRecurring) && recurrenceRule != null;
+    }
+
+    public boolean isOccurrenceOverride() {
+        return recurrenceParentId != null && originalStartTime != null;
+    }
+
     public LocalDateTime getReminderTime() {
-        if (reminderMinutes == null) return null;
+        if (reminderMinutes == null || startTime == null) return null;
         return startTime.minusMinutes(reminderMinutes);
     }
 
@@ -200,6 +309,7 @@ public class Availability {
     public String toString() {
         return "Availability{" +
                 "id=" + id +
+                ", userId=" + getUserId() +
                 ", startTime=" + startTime +
                 ", endTime=" + endTime +
                 ", timezone='" + timezone + '\'' +
@@ -210,6 +320,8 @@ public class Availability {
                 ", isAllDay=" + isAllDay +
                 ", reminderMinutes=" + reminderMinutes +
                 ", isRecurring=" + isRecurring +
+                ", recurrenceRule='" + recurrenceRule + '\'' +
+                ", recurrenceParentId=" + recurrenceParentId +
                 '}';
     }
 }
@@ -7,7 +7,8 @@ public enum AvailabilitySource {
     MANUAL("Manual Entry"),
     GOOGLE_CALENDAR("Google Calendar"),
     OVERRIDE("Manual Override"),
-    RECURRING("Recurring Pattern");
+    RECURRING("Recurring Pattern"),
+    IMPORTED("Imported Calendar");
 
     private final String displayName;
 
@@ -19,7 +20,7 @@ public enum AvailabilitySource {
         return switch (this) {
             case OVERRIDE -> 4;
             case MANUAL -> 3;
-            case GOOGLE_CALENDAR -> 2;
+            case GOOGLE_CALENDAR, IMPORTED -> 2;
             case RECURRING -> 1;
         };
     }
@@ -35,7 +36,7 @@ public enum AvailabilitySource {
     }
 
     public boolean isImported(){
-        return this == GOOGLE_CALENDAR;
+        return this == GOOGLE_CALENDAR || this == IMPORTED;
     }
 
     public boolean isCurrentlySupported(){
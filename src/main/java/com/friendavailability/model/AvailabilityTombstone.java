@@ -0,0 +1,46 @@
+package com.friendavailability.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records a deleted availability row so that delta sync can tell clients to drop it.
+ */
+@Entity
+@Table(name = "availability_tombstones",
+        indexes = {
+                @Index(name = "idx_tombstone_user_version", columnList = "user_id, change_version")
+        }
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "availability_id", nullable = false)
+    private Long availabilityId;
+
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @PrePersist
+    public void onCreate() {
+        if (deletedAt == null) deletedAt = LocalDateTime.now();
+    }
+}
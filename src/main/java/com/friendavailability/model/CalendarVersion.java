@@ -0,0 +1,27 @@
+package com.friendavailability.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user calendar version counter. Writes increment it in their own transaction, so the row
+ * lock orders a user's writes and every instance reads the same committed value.
+ */
+@Entity
+@Table(name = "calendar_versions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarVersion {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -1,14 +1,14 @@
 package com.friendavailability.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-import lombok.AllArgsConstructor;
-import lombok.Builder;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 
@@ -25,10 +25,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Message {
+public class Message implements Persistable<Long> {
 
+    // Assigned by SnowflakeIdGenerator before the message is written; serialized as a string since
+    // the ids exceed the 2^53 integers JavaScript clients can represent
+    @JsonSerialize(using = ToStringSerializer.class)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
     private Long id;
 
@@ -62,6 +64,28 @@ public class Message {
     @Column(name = "sender_id", insertable = false, updatable = false)
     private Long senderId;
 
+    // Ids are assigned before saving, so Spring Data cannot tell new messages by a null id;
+    // without this, save() would merge and SELECT the row before inserting it
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newMessage = true;
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newMessage;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.newMessage = false;
+    }
+
     @PrePersist
     protected void onCreate() {
         if (this.sentAt == null) {
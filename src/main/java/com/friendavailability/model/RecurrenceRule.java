@@ -0,0 +1,259 @@
+package com.friendavailability.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Parsed subset of an RFC 5545 RRULE: FREQ (DAILY, WEEKLY, MONTHLY, YEARLY), INTERVAL,
+ * COUNT, UNTIL and BYDAY (weekly rules only).
+ *
+ * Occurrences are generated lazily for a requested window. For open-ended rules the
+ * expansion jumps straight to the period containing the window instead of walking the
+ * series from its first occurrence.
+ *
+ * Occurrences are wall-clock times in the series' own zone. A UTC UNTIL (with a trailing Z) is
+ * converted to that zone when the rule is parsed; a date-only or floating UNTIL is already local.
+ */
+public final class RecurrenceRule {
+
+    public enum Frequency { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+    private static final int MAX_OCCURRENCES = 5000;
+    private static final int MAX_PERIODS = 100_000;
+
+    private static final Map<String, DayOfWeek> DAY_CODES = Map.of(
+            "MO", DayOfWeek.MONDAY, "TU", DayOfWeek.TUESDAY, "WE", DayOfWeek.WEDNESDAY,
+            "TH", DayOfWeek.THURSDAY, "FR", DayOfWeek.FRIDAY, "SA", DayOfWeek.SATURDAY,
+            "SU", DayOfWeek.SUNDAY);
+
+    private final Frequency frequency;
+    private final int interval;
+    private final Integer count;
+    private final LocalDateTime until;
+    private final List<DayOfWeek> byDay;
+
+    private RecurrenceRule(Frequency frequency, int interval, Integer count, LocalDateTime until, List<DayOfWeek> byDay) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+        this.byDay = byDay;
+    }
+
+    public static RecurrenceRule parse(String rule, ZoneId zone) {
+        if (rule == null || rule.trim().isEmpty()) {
+            throw new RuntimeException("Recurrence rule is required");
+        }
+        String body = rule.trim();
+        if (body.toUpperCase(Locale.ROOT).startsWith("RRULE:")) {
+            body = body.substring("RRULE:".length());
+        }
+
+        Frequency frequency = null;
+        int interval = 1;
+        Integer count = null;
+        LocalDateTime until = null;
+        TreeSet<DayOfWeek> byDay = new TreeSet<>();
+
+        try {
+            for (String part : body.split(";")) {
+                if (part.isBlank()) {
+                    continue;
+                }
+                String[] keyValue = part.split("=", 2);
+                if (keyValue.length != 2) {
+                    throw new RuntimeException("Invalid recurrence rule part: " + part);
+                }
+                String key = keyValue[0].trim().toUpperCase(Locale.ROOT);
+                String value = keyValue[1].trim().toUpperCase(Locale.ROOT);
+                switch (key) {
+                    case "FREQ" -> frequency = Frequency.valueOf(value);
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> until = parseUntil(value, zone);
+                    case "BYDAY" -> {
+                        for (String code : value.split(",")) {
+                            DayOfWeek day = DAY_CODES.get(code.trim());
+                            if (day == null) {
+                                throw new RuntimeException("Unsupported BYDAY value: " + code);
+                            }
+                            byDay.add(day);
+                        }
+                    }
+                    case "WKST" -> { }
+                    default -> throw new RuntimeException("Unsupported recurrence rule part: " + key);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid recurrence rule: " + rule);
+        }
+
+        if (frequency == null) {
+            throw new RuntimeException("Recurrence rule must specify FREQ");
+        }
+        if (interval < 1) {
+            throw new RuntimeException("Recurrence interval must be at least 1");
+        }
+        if (count != null && count < 1) {
+            throw new RuntimeException("Recurrence count must be at least 1");
+        }
+        if (count != null && until != null) {
+            throw new RuntimeException("Recurrence rule cannot have both COUNT and UNTIL");
+        }
+        if (!byDay.isEmpty() && frequency != Frequency.WEEKLY) {
+            throw new RuntimeException("BYDAY is only supported for weekly recurrence");
+        }
+        return new RecurrenceRule(frequency, interval, count, until, List.copyOf(byDay));
+    }
+
+    private static LocalDateTime parseUntil(String value, ZoneId zone) {
+        boolean utc = value.endsWith("Z");
+        String normalized = utc ? value.substring(0, value.length() - 1) : value;
+        if (normalized.length() == 8) {
+            return LocalDate.parse(normalized, DateTimeFormatter.BASIC_ISO_DATE).atTime(LocalTime.MAX);
+        }
+        LocalDateTime until = LocalDateTime.parse(normalized, DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss"));
+        return utc ? until.atOffset(ZoneOffset.UTC).atZoneSameInstant(zone).toLocalDateTime() : until;
+    }
+
+    /**
+     * Start times of the occurrences of a series beginning at {@code dtStart} whose
+     * [start, start + duration] overlaps [from, to]. With {@code inclusive}, occurrences that
+     * only touch the window boundaries are included as well.
+     */
+    public List<LocalDateTime> occurrences(LocalDateTime dtStart, long durationSeconds,
+                                           LocalDateTime from, LocalDateTime to, boolean inclusive) {
+        List<LocalDateTime> result = new ArrayList<>();
+        LocalDateTime earliestStart = from.minusSeconds(durationSeconds);
+
+        long period = firstPeriod(dtStart, earliestStart);
+        long seen = count != null ? occurrencesBefore(dtStart, period) : 0;
+        if (period < 0) {
+            period = 0;
+            seen = 0;
+        }
+
+        for (int periods = 0; periods < MAX_PERIODS; periods++, period++) {
+            for (LocalDateTime start : candidates(dtStart, period)) {
+                if (start.isBefore(dtStart)) {
+                    continue;
+                }
+                seen++;
+                if ((count != null && seen > count) || (until != null && start.isAfter(until))) {
+                    return result;
+                }
+                if (inclusive ? start.isAfter(to) : !start.isBefore(to)) {
+                    return result;
+                }
+                LocalDateTime end = start.plusSeconds(durationSeconds);
+                boolean overlaps = inclusive ? !end.isBefore(from) : end.isAfter(from);
+                if (overlaps) {
+                    result.add(start);
+                    if (result.size() >= MAX_OCCURRENCES) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Start of the last occurrence of a series beginning at {@code dtStart}, or a time no
+     * earlier than it; null when the series is open-ended or too long to expand.
+     */
+    public LocalDateTime lastStart(LocalDateTime dtStart) {
+        if (until != null) {
+            return until.isBefore(dtStart) ? dtStart : until;
+        }
+        if (count == null) {
+            return null;
+        }
+        List<LocalDateTime> starts = occurrences(dtStart, 0, dtStart, LocalDateTime.MAX, true);
+        return starts.size() == count ? starts.get(starts.size() - 1) : null;
+    }
+
+    /**
+     * Index of the period just before the one that can first reach the window; -1 when the
+     * whole series has to be walked (e.g. month-end dates where some periods are skipped).
+     */
+    private long firstPeriod(LocalDateTime dtStart, LocalDateTime earliestStart) {
+        if (!earliestStart.isAfter(dtStart)) {
+            return 0;
+        }
+        long elapsed = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(dtStart.toLocalDate(), earliestStart.toLocalDate());
+            case WEEKLY -> ChronoUnit.WEEKS.between(weekStart(dtStart.toLocalDate()), earliestStart.toLocalDate());
+            case MONTHLY -> ChronoUnit.MONTHS.between(YearMonth.from(dtStart), YearMonth.from(earliestStart));
+            case YEARLY -> ChronoUnit.YEARS.between(YearMonth.from(dtStart), YearMonth.from(earliestStart));
+        };
+        if (count != null && !everyPeriodHasOneOccurrence(dtStart)) {
+            return -1;
+        }
+        return Math.max(0, elapsed / interval - 1);
+    }
+
+    private long occurrencesBefore(LocalDateTime dtStart, long period) {
+        if (period <= 0) {
+            return 0;
+        }
+        if (frequency == Frequency.WEEKLY) {
+            long inFirstPeriod = candidates(dtStart, 0).stream().filter(start -> !start.isBefore(dtStart)).count();
+            return inFirstPeriod + (period - 1) * weeklyDays(dtStart).size();
+        }
+        return period;
+    }
+
+    private boolean everyPeriodHasOneOccurrence(LocalDateTime dtStart) {
+        return switch (frequency) {
+            case DAILY, WEEKLY -> true;
+            case MONTHLY -> dtStart.getDayOfMonth() <= 28;
+            case YEARLY -> !(dtStart.getMonthValue() == 2 && dtStart.getDayOfMonth() == 29);
+        };
+    }
+
+    private List<LocalDateTime> candidates(LocalDateTime dtStart, long period) {
+        long steps = period * interval;
+        return switch (frequency) {
+            case DAILY -> List.of(dtStart.plusDays(steps));
+            case WEEKLY -> {
+                LocalDate week = weekStart(dtStart.toLocalDate()).plusWeeks(steps);
+                List<LocalDateTime> starts = new ArrayList<>();
+                for (DayOfWeek day : weeklyDays(dtStart)) {
+                    starts.add(week.plusDays(day.getValue() - 1L).atTime(dtStart.toLocalTime()));
+                }
+                yield starts;
+            }
+            case MONTHLY -> {
+                LocalDateTime start = dtStart.plusMonths(steps);
+                yield start.getDayOfMonth() == dtStart.getDayOfMonth() ? List.of(start) : List.of();
+            }
+            case YEARLY -> {
+                LocalDateTime start = dtStart.plusYears(steps);
+                yield start.getDayOfMonth() == dtStart.getDayOfMonth() ? List.of(start) : List.of();
+            }
+        };
+    }
+
+    private List<DayOfWeek> weeklyDays(LocalDateTime dtStart) {
+        return byDay.isEmpty() ? List.of(dtStart.getDayOfWeek()) : byDay;
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,39 @@
+package com.friendavailability.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user event counters, adjusted in the same transaction as every availability write so
+ * that statistics are a primary key lookup instead of COUNT queries. Archived rows still count.
+ */
+@Entity
+@Table(name = "user_availability_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAvailabilityStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_events", nullable = false)
+    private Long totalEvents;
+
+    @Column(name = "busy_events", nullable = false)
+    private Long busyEvents;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public long getFreeEvents() {
+        return totalEvents - busyEvents;
+    }
+}
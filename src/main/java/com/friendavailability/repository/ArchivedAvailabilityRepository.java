@@ -0,0 +1,48 @@
+package com.friendavailability.repository;
+
+import com.friendavailability.model.ArchivedAvailability;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedAvailabilityRepository extends JpaRepository<ArchivedAvailability, Long> {
+
+    @Query("SELECT a FROM ArchivedAvailability a WHERE a.userId = :userId " +
+            "AND a.startEpoch <= :endEpoch AND a.endEpoch >= :startEpoch ORDER BY a.startEpoch")
+    List<ArchivedAvailability> findOverlapping(@Param("userId") Long userId,
+                                               @Param("startEpoch") long startEpoch,
+                                               @Param("endEpoch") long endEpoch);
+
+    @Query("SELECT a FROM ArchivedAvailability a WHERE a.userId IN :userIds " +
+            "AND a.startEpoch <= :endEpoch AND a.endEpoch >= :startEpoch ORDER BY a.startEpoch")
+    List<ArchivedAvailability> findOverlappingForUsers(@Param("userIds") Collection<Long> userIds,
+                                                       @Param("startEpoch") long startEpoch,
+                                                       @Param("endEpoch") long endEpoch);
+
+    List<ArchivedAvailability> findByUserIdOrderByStartTime(Long userId);
+
+    // Keyset pagination over (startTime, id), same as the hot table's export pages
+    List<ArchivedAvailability> findByUserIdOrderByStartTimeAscIdAsc(Long userId, Pageable pageable);
+
+    @Query("SELECT a FROM ArchivedAvailability a WHERE a.userId = :userId " +
+            "AND (a.startTime > :afterStart OR (a.startTime = :afterStart AND a.id > :afterId)) " +
+            "ORDER BY a.startTime ASC, a.id ASC")
+    List<ArchivedAvailability> findPageAfter(@Param("userId") Long userId,
+                                             @Param("afterStart") LocalDateTime afterStart,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+
+    // [externalId, originalStartTime] pairs the user has in the archive, same shape as the hot table's
+    @Query("SELECT a.externalId, a.originalStartTime FROM ArchivedAvailability a WHERE a.userId = :userId AND a.externalId IN :externalIds")
+    List<Object[]> findImportedKeys(@Param("userId") Long userId, @Param("externalIds") Collection<String> externalIds);
+
+    @Query("SELECT MAX(a.endEpoch) FROM ArchivedAvailability a")
+    Long findMaxEndEpoch();
+}
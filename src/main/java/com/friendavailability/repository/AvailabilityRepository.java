@@ -2,12 +2,14 @@ package com.friendavailability.repository;
 
 import com.friendavailability.model.Availability;
 import com.friendavailability.model.AvailabilitySource;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,54 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
                                                        @Param("startTime") LocalDateTime startTime,
                                                        @Param("endTime") LocalDateTime endTime);
 
+    // Cross-user queries compare the UTC epoch columns, since each user's times are in their own zone
+    @Query("SELECT a FROM Availability a WHERE a.user.id IN :userIds AND a.isRecurring = false " +
+            "AND a.startEpoch <= :endEpoch AND a.endEpoch >= :startEpoch ORDER BY a.startEpoch")
+    List<Availability> findByUserIdsAndDateRangeOverlap(@Param("userIds") Collection<Long> userIds,
+                                                        @Param("startEpoch") long startEpoch,
+                                                        @Param("endEpoch") long endEpoch);
+
+    @Query("SELECT a FROM Availability a WHERE a.user.id IN :userIds AND a.isRecurring = true AND a.startEpoch <= :endEpoch " +
+            "AND (a.seriesEndEpoch IS NULL OR a.seriesEndEpoch >= :startEpoch)")
+    List<Availability> findRecurringMastersForUsers(@Param("userIds") Collection<Long> userIds,
+                                                    @Param("startEpoch") long startEpoch,
+                                                    @Param("endEpoch") long endEpoch);
+
+    List<Availability> findByRecurrenceParentIdIn(Collection<Long> recurrenceParentIds);
+
+    // [externalId, originalStartTime] pairs already imported for the user
+    @Query("SELECT a.externalId, a.originalStartTime FROM Availability a WHERE a.user.id = :userId AND a.externalId IN :externalIds")
+    List<Object[]> findImportedKeys(@Param("userId") Long userId, @Param("externalIds") Collection<String> externalIds);
+
+    // [externalId, id] of the user's recurring series with the given UIDs
+    @Query("SELECT a.externalId, a.id FROM Availability a WHERE a.user.id = :userId AND a.isRecurring = true AND a.externalId IN :externalIds")
+    List<Object[]> findRecurringIdsByExternalId(@Param("userId") Long userId, @Param("externalIds") Collection<String> externalIds);
+    Optional<Availability> findFirstByRecurrenceParentIdAndOriginalStartTime(Long recurrenceParentId, LocalDateTime originalStartTime);
+    void deleteByRecurrenceParentId(Long recurrenceParentId);
+
+    // Keyset pagination over (startTime, id): each page resumes after the last row of the previous one
+    List<Availability> findByUserIdOrderByStartTimeAscIdAsc(Long userId, Pageable pageable);
+
+    @Query("SELECT a FROM Availability a WHERE a.user.id = :userId " +
+            "AND (a.startTime > :afterStart OR (a.startTime = :afterStart AND a.id > :afterId)) " +
+            "ORDER BY a.startTime ASC, a.id ASC")
+    List<Availability> findPageAfter(@Param("userId") Long userId,
+                                     @Param("afterStart") LocalDateTime afterStart,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    // Delta sync: rows written within a range of calendar versions
+    List<Availability> findByUserIdAndChangeVersionBetweenOrderByChangeVersionAscIdAsc(Long userId, Long fromVersion,
+                                                                                     Long toVersion, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(a.changeVersion), 0) FROM Availability a WHERE a.user.id = :userId")
+    long findMaxChangeVersion(@Param("userId") Long userId);
+
+    /** [total, busy] event counts of a user; being JPQL, it flushes pending availability writes first. */
+    @Query("SELECT COUNT(a), COALESCE(SUM(CASE WHEN a.isBusy = true THEN 1 ELSE 0 END), 0) " +
+           "FROM Availability a WHERE a.user.id = :userId")
+    List<Object[]> countEventsByUserId(@Param("userId") Long userId);
+
     List<Availability> findByUserIdAndIsBusyFalseOrderByStartTime(Long userId);
     List<Availability> findByUserIdAndIsBusyTrueOrderByStartTime(Long userId);
     List<Availability> findByUserIdAndIsBusyFalseAndStartTimeBetweenOrderByStartTime(
@@ -47,10 +97,38 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
                                                      @Param("startTime") LocalDateTime startTime,
                                                      @Param("endTime") LocalDateTime endTime);
 
-    @Query("SELECT COUNT(a) > 0 FROM Availability a WHERE a.user.id = :userId AND a.startTime < :endTime AND a.endTime > :startTime")
-    boolean hasOverlappingSlots(@Param("userId") Long userId,
-                                @Param("startTime") LocalDateTime startTime,
-                                @Param("endTime") LocalDateTime endTime);
+    // Derived exists queries stop at the first matching row instead of counting all of them
+    default boolean hasOverlappingSlots(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        return existsByUserIdAndStartTimeBeforeAndEndTimeAfter(userId, endTime, startTime);
+    }
+
+    boolean existsByUserIdAndStartTimeBeforeAndEndTimeAfter(Long userId, LocalDateTime endTime, LocalDateTime startTime);
+
+    // Conflict checks for users not in the index, backed by idx_availability_user_epoch. Both also match the
+    // user's recurring series that can still reach the range (whose occurrences only exist after expansion),
+    // so the caller learns in the same round-trip whether it has to expand them instead.
+    // [id, startEpoch, endEpoch, timezone, isRecurring] of busy overlapping rows and recurring series
+    @Query("SELECT a.id, a.startEpoch, a.endEpoch, a.timezone, a.isRecurring FROM Availability a WHERE a.user.id = :userId " +
+            "AND ((a.isRecurring = true AND a.startEpoch < :endEpoch " +
+            "AND (a.seriesEndEpoch IS NULL OR a.seriesEndEpoch > :startEpoch)) " +
+            "OR (a.isBusy = true AND (:excludeId IS NULL OR a.id <> :excludeId) " +
+            "AND a.startEpoch < :endEpoch AND a.endEpoch > :startEpoch)) ORDER BY a.startEpoch")
+    List<Object[]> findBusySlotsOrSeries(@Param("userId") Long userId,
+                                        @Param("excludeId") Long excludeId,
+                                        @Param("startEpoch") long startEpoch,
+                                        @Param("endEpoch") long endEpoch);
+
+    // isRecurring of the first matching row: stops at the first busy overlap or live recurring series
+    @Query("SELECT a.isRecurring FROM Availability a WHERE a.user.id = :userId " +
+            "AND ((a.isRecurring = true AND a.startEpoch < :endEpoch " +
+            "AND (a.seriesEndEpoch IS NULL OR a.seriesEndEpoch > :startEpoch)) " +
+            "OR (a.isBusy = true AND (:excludeId IS NULL OR a.id <> :excludeId) " +
+            "AND a.startEpoch < :endEpoch AND a.endEpoch > :startEpoch))")
+    List<Boolean> findFirstBusySlotOrSeries(@Param("userId") Long userId,
+                                            @Param("excludeId") Long excludeId,
+                                            @Param("startEpoch") long startEpoch,
+                                            @Param("endEpoch") long endEpoch,
+                                            Pageable pageable);
 
     long countByUserId(Long userId);
     long countByUserIdAndStartTimeBetween(Long userId, LocalDateTime start, LocalDateTime end);
@@ -65,13 +143,24 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
                                            @Param("dayEnd") LocalDateTime dayEnd);
 
     List<Availability> findByUserIdAndStartTimeAfterOrderByStartTime(Long userId, LocalDateTime now);
+    List<Availability> findByUserIdAndStartEpochGreaterThanOrderByStartEpoch(Long userId, Long nowEpoch);
     List<Availability> findByUserIdAndEndTimeBeforeOrderByStartTimeDesc(Long userId, LocalDateTime now);
 
     @Query("SELECT a FROM Availability a WHERE a.user.id = :userId AND a.startTime <= :now AND a.endTime >= :now ORDER BY a.startTime")
     List<Availability> findCurrentEvents(@Param("userId") Long userId, @Param("now") LocalDateTime now);
 
-//    @Query("SELECT a FROM Availability a WHERE a.user.id = :userId AND a.reminderMinutes IS NOT NULL AND (a.startTime - INTERVAL a.reminderMinutes MINUTE) <= :now AND a.startTime > :now")
-//    List<Availability> findEventsWithDueReminders(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    @Query("SELECT a FROM Availability a WHERE a.isRecurring = false AND a.reminderAt >= :from AND a.reminderAt < :to")
+    List<Availability> findRemindersDueBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Series with reminders that start before :beforeEpoch and are still running at :afterEpoch
+    @Query("SELECT a FROM Availability a WHERE a.isRecurring = true AND a.recurrenceRule IS NOT NULL " +
+            "AND a.reminderMinutes IS NOT NULL AND a.startEpoch < :beforeEpoch " +
+            "AND (a.seriesEndEpoch IS NULL OR a.seriesEndEpoch > :afterEpoch)")
+    List<Availability> findRecurringMastersWithReminders(@Param("beforeEpoch") long beforeEpoch,
+                                                         @Param("afterEpoch") long afterEpoch);
+
+    List<Availability> findByRecurrenceParentIdInAndOriginalStartTimeBetween(Collection<Long> recurrenceParentIds,
+                                                                            LocalDateTime from, LocalDateTime to);
 
     List<Availability> findByUserIdAndLocationContainingIgnoreCaseOrderByStartTime(Long userId, String location);
     List<Availability> findByUserIdAndTitleContainingIgnoreCaseOrderByStartTime(Long userId, String title);
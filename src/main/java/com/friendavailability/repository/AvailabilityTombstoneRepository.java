@@ -0,0 +1,22 @@
+package com.friendavailability.repository;
+
+import com.friendavailability.model.AvailabilityTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AvailabilityTombstoneRepository extends JpaRepository<AvailabilityTombstone, Long> {
+
+    @Query("SELECT t.availabilityId FROM AvailabilityTombstone t WHERE t.userId = :userId AND t.changeVersion > :since " +
+            "AND t.changeVersion <= :until ORDER BY t.changeVersion, t.id")
+    List<Long> findDeletedIdsSince(@Param("userId") Long userId, @Param("since") Long since,
+                                   @Param("until") Long until, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(t.changeVersion), 0) FROM AvailabilityTombstone t WHERE t.userId = :userId")
+    long findMaxChangeVersion(@Param("userId") Long userId);
+}
@@ -31,6 +31,12 @@ public interface ChatParticipantRepository extends JpaRepository<ChatParticipant
     boolean isUserActiveInRoom(@Param("userId") Long userId,
             @Param("chatRoomId") Long chatRoomId);
 
+    // Only the columns the membership cache needs: [userId, role]
+    @Query("SELECT cp.userId, cp.role FROM ChatParticipant cp " +
+            "WHERE cp.chatRoomId = :chatRoomId " +
+            "AND cp.isActive = true")
+    List<Object[]> findActiveMemberRoles(@Param("chatRoomId") Long chatRoomId);
+
     @Query("SELECT cp FROM ChatParticipant cp " +
             "WHERE cp.userId = :userId " +
             "AND cp.chatRoomId = :chatRoomId " +
@@ -34,6 +34,13 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
             "ORDER BY cr.updatedAt DESC")
     Page<ChatRoom> findChatRoomsForUser(@Param("userId") Long userId, Pageable pageable);
 
+    // [id, updatedAt] of the user's rooms, for ordering with unflushed room activity
+    @Query("SELECT DISTINCT cr.id, cr.updatedAt FROM ChatRoom cr " +
+           "JOIN cr.participants cp " +
+           "WHERE cp.userId = :userId " +
+           "AND cp.isActive = true")
+    List<Object[]> findChatRoomActivityForUser(@Param("userId") Long userId);
+
     @Query("SELECT COUNT(DISTINCT cr) FROM ChatRoom cr " +
            "JOIN cr.participants cp " +
            "WHERE cp.userId = :userId " +
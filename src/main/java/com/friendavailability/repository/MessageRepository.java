@@ -4,6 +4,7 @@ import com.friendavailability.model.Message;
 import com.friendavailability.model.MessageType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -20,6 +21,20 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
 
     Page<Message> findByChatRoomIdOrderBySentAtDesc(Long chatRoomId, Pageable pageable);
 
+    // Keyset pagination over (sentAt, id), newest first. Both walk idx_message_room_time, whose
+    // entries also carry the primary key, and a Slice fetches one extra row instead of counting.
+    Slice<Message> findByChatRoomIdOrderBySentAtDescIdDesc(Long chatRoomId, Pageable pageable);
+
+    @Query("SELECT m FROM Message m " +
+            "WHERE m.chatRoomId = :chatRoomId " +
+            "AND m.sentAt <= :beforeSentAt " +
+            "AND (m.sentAt < :beforeSentAt OR m.id < :beforeId) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    Slice<Message> findPageBefore(@Param("chatRoomId") Long chatRoomId,
+            @Param("beforeSentAt") LocalDateTime beforeSentAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
     @Query("SELECT m FROM Message m " +
             "WHERE m.chatRoomId = :chatRoomId " +
             "ORDER BY m.sentAt DESC " +
@@ -0,0 +1,9 @@
+package com.friendavailability.repository;
+
+import com.friendavailability.model.UserAvailabilityStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserAvailabilityStatsRepository extends JpaRepository<UserAvailabilityStats, Long> {
+}
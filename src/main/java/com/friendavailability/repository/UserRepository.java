@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,13 @@ public interface UserRepository extends JpaRepository<User, Long>{
     boolean existsByEmail(String email);
     boolean existsByGoogleId(String googleId);
 
+    @Query("SELECT u.name FROM User u WHERE u.id = :id")
+    Optional<String> findNameById(@Param("id") Long id);
+
+    // [id, name] pairs of the given users
+    @Query("SELECT u.id, u.name FROM User u WHERE u.id IN :ids")
+    List<Object[]> findNamesByIds(@Param("ids") Collection<Long> ids);
+
     List<User> findByIsActiveTrue();
     List<User> findByEmailVerifiedTrue();
     List<User> findByIsActiveTrueAndEmailVerifiedTrue();
@@ -0,0 +1,199 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.ArchivedAvailability;
+import com.friendavailability.model.Availability;
+import com.friendavailability.model.User;
+import com.friendavailability.repository.ArchivedAvailabilityRepository;
+import com.friendavailability.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Moves past events from {@code availabilities} into {@code availability_archive} and reads
+ * them back for historical ranges.
+ *
+ * A nightly job copies finished, non-recurring events older than the horizon in chunks, one
+ * transaction per chunk (INSERT ... SELECT, then DELETE), so the hot table only holds recent
+ * and upcoming rows. Recurring series and their overrides stay in the hot table because
+ * expanding a series needs all of them.
+ *
+ * Readers ask {@link #covers} first: the archive is only queried when a range starts at or
+ * before the newest archived end time. That watermark is re-read from the archive every
+ * {@code watermark-refresh-ms}, so instances that did not run the job still see new archives.
+ */
+@Component
+@DependsOn("availabilityEpochBackfill")
+public class AvailabilityArchive {
+
+    private static final String COLUMNS = "id, user_id, start_time, end_time, timezone, source, google_event_id, " +
+            "external_id, is_busy, title, description, is_recurring, recurrence_rule, recurrence_parent_id, " +
+            "original_start_time, created_at, updated_at, location, is_all_day, reminder_minutes, reminder_at, " +
+            "change_version, start_epoch, end_epoch";
+
+    private static final String SELECT_CHUNK_SQL = "SELECT id, user_id FROM availabilities " +
+            "WHERE is_recurring = false AND recurrence_parent_id IS NULL AND end_epoch < ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchivedAvailabilityRepository archivedAvailabilityRepository;
+    private final UserRepository userRepository;
+    private final AvailabilityIndex availabilityIndex;
+
+    // Newest archived end_epoch and when it was last read from the archive table
+    private volatile long archivedUntil = Long.MIN_VALUE;
+    private volatile long watermarkReadAt;
+
+    @Value("${app.availability.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.availability.archive.horizon-days:365}")
+    private long horizonDays;
+
+    @Value("${app.availability.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.availability.archive.watermark-refresh-ms:60000}")
+    private long watermarkRefreshMs;
+
+    @Value("${app.availability.export.page-size:500}")
+    private int pageSize;
+
+    public AvailabilityArchive(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               ArchivedAvailabilityRepository archivedAvailabilityRepository,
+                               UserRepository userRepository, AvailabilityIndex availabilityIndex) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedAvailabilityRepository = archivedAvailabilityRepository;
+        this.userRepository = userRepository;
+        this.availabilityIndex = availabilityIndex;
+        System.out.println("AvailabilityArchive created");
+    }
+
+    @Scheduled(cron = "${app.availability.archive.cron:0 30 3 * * *}")
+    public void archiveOldAvailability() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = FreeBusyCalculator.toEpoch(FreeBusyCalculator.nowUtc()) - horizonDays * 24 * 60 * 60;
+        System.out.println("Archiving availability that ended before " + FreeBusyCalculator.fromEpoch(cutoff));
+
+        int total = 0;
+        try {
+            while (true) {
+                Integer moved = transactionTemplate.execute(status -> moveChunk(cutoff));
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                total += moved;
+                if (moved < chunkSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error archiving availability: " + e.getMessage());
+        }
+        System.out.println("Archived " + total + " availability records");
+    }
+
+    private int moveChunk(long cutoff) {
+        List<Long> ids = new ArrayList<>(chunkSize);
+        Set<Long> userIds = new HashSet<>();
+        jdbcTemplate.query(SELECT_CHUNK_SQL, row -> {
+            ids.add(row.getLong("id"));
+            userIds.add(row.getLong("user_id"));
+        }, cutoff, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> insertArgs = new ArrayList<>(ids.size() + 1);
+        insertArgs.add(LocalDateTime.now());
+        insertArgs.addAll(ids);
+        jdbcTemplate.update("INSERT INTO availability_archive (" + COLUMNS + ", archived_at) SELECT " + COLUMNS
+                + ", ? FROM availabilities WHERE id IN (" + placeholders + ")", insertArgs.toArray());
+        jdbcTemplate.update("DELETE FROM availabilities WHERE id IN (" + placeholders + ")", ids.toArray());
+
+        // Timelines still hold the moved rows; drop them once the chunk commits
+        userIds.forEach(availabilityIndex::invalidate);
+        long until = Math.max(cutoff - 1, archivedUntil());
+        archivedUntil = until;
+        return ids.size();
+    }
+
+    /** Whether a range starting at {@code start} (UTC) can include archived events. */
+    public boolean covers(LocalDateTime start) {
+        return FreeBusyCalculator.toEpoch(start) <= archivedUntil();
+    }
+
+    /** Archived events overlapping [start, end], touching boundaries included. */
+    public List<Availability> findOverlapping(Long userId, LocalDateTime start, LocalDateTime end) {
+        List<ArchivedAvailability> archived = archivedAvailabilityRepository.findOverlapping(
+                userId, FreeBusyCalculator.toEpoch(start), FreeBusyCalculator.toEpoch(end));
+        return toAvailability(userId, archived);
+    }
+
+    /** Archived events of several users overlapping [start, end], in one query. */
+    public List<Availability> findOverlapping(Collection<Long> userIds, LocalDateTime start, LocalDateTime end) {
+        List<ArchivedAvailability> archived = archivedAvailabilityRepository.findOverlappingForUsers(
+                userIds, FreeBusyCalculator.toEpoch(start), FreeBusyCalculator.toEpoch(end));
+        List<Availability> result = new ArrayList<>(archived.size());
+        Map<Long, User> users = new HashMap<>();
+        for (ArchivedAvailability row : archived) {
+            result.add(row.toAvailability(users.computeIfAbsent(row.getUserId(), userRepository::getReferenceById)));
+        }
+        return result;
+    }
+
+    /** [externalId, originalStartTime] pairs of archived events with the given UIDs, for import deduplication. */
+    public List<Object[]> findImportedKeys(Long userId, Collection<String> externalIds) {
+        if (archivedUntil() == Long.MIN_VALUE) {
+            return List.of();
+        }
+        return archivedAvailabilityRepository.findImportedKeys(userId, externalIds);
+    }
+
+    public List<Availability> findAll(Long userId) {
+        return toAvailability(userId, archivedAvailabilityRepository.findByUserIdOrderByStartTime(userId));
+    }
+
+    /** Keyset page of archived events after ({@code afterStart}, {@code afterId}); the first page when both are null. */
+    public List<Availability> findPage(Long userId, LocalDateTime afterStart, Long afterId) {
+        List<ArchivedAvailability> page = afterStart == null
+                ? archivedAvailabilityRepository.findByUserIdOrderByStartTimeAscIdAsc(userId, PageRequest.of(0, pageSize))
+                : archivedAvailabilityRepository.findPageAfter(userId, afterStart, afterId, PageRequest.of(0, pageSize));
+        return toAvailability(userId, page);
+    }
+
+    private List<Availability> toAvailability(Long userId, List<ArchivedAvailability> archived) {
+        if (archived.isEmpty()) {
+            return List.of();
+        }
+        User user = userRepository.getReferenceById(userId);
+        List<Availability> result = new ArrayList<>(archived.size());
+        for (ArchivedAvailability row : archived) {
+            result.add(row.toAvailability(user));
+        }
+        return result;
+    }
+
+    private long archivedUntil() {
+        long now = System.currentTimeMillis();
+        if (watermarkReadAt == 0 || now - watermarkReadAt >= watermarkRefreshMs) {
+            Long max = archivedAvailabilityRepository.findMaxEndEpoch();
+            // Never move backwards past what this instance archived itself
+            archivedUntil = Math.max(archivedUntil, max != null ? max : Long.MIN_VALUE);
+            watermarkReadAt = now;
+        }
+        return archivedUntil;
+    }
+}
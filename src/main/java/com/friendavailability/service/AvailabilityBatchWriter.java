@@ -0,0 +1,115 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts availability rows with JDBC batching.
+ *
+ * The entity uses IDENTITY ids, which makes Hibernate flush every insert on its own, so bulk
+ * writes bypass the persistence context and go through a single prepared statement instead.
+ * Runs inside the caller's transaction; the generated ids are written back onto the rows, all
+ * rows of one call share a single calendar version, and the user's counters are adjusted once.
+ */
+@Component
+public class AvailabilityBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO availabilities (" +
+            "user_id, start_time, end_time, timezone, source, google_event_id, is_busy, title, description, " +
+            "is_recurring, recurrence_rule, recurrence_parent_id, original_start_time, created_at, updated_at, " +
+            "location, is_all_day, reminder_minutes, reminder_at, external_id, change_version, start_epoch, end_epoch, " +
+            "series_end_epoch) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CalendarVersionTracker calendarVersions;
+    private final AvailabilityStatsService statsService;
+
+    @Value("${app.availability.bulk.batch-size:500}")
+    private int batchSize;
+
+    public AvailabilityBatchWriter(JdbcTemplate jdbcTemplate, CalendarVersionTracker calendarVersions,
+                                   AvailabilityStatsService statsService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.calendarVersions = calendarVersions;
+        this.statsService = statsService;
+        System.out.println("AvailabilityBatchWriter created");
+    }
+
+    public List<Long> insertAll(Long userId, List<Availability> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        // One calendar version for the whole call
+        long version = calendarVersions.next(userId);
+        rows.forEach(row -> row.setChangeVersion(version));
+
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            List<Long> generated = new ArrayList<>(rows.size());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < rows.size(); i++) {
+                    bind(statement, userId, rows.get(i));
+                    statement.addBatch();
+                    if ((i + 1) % batchSize == 0 || i == rows.size() - 1) {
+                        statement.executeBatch();
+                        try (ResultSet keys = statement.getGeneratedKeys()) {
+                            while (keys.next()) {
+                                generated.add(keys.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+            return generated;
+        });
+
+        for (int i = 0; i < rows.size() && i < ids.size(); i++) {
+            rows.get(i).setId(ids.get(i));
+        }
+        statsService.recordCreated(userId, rows);
+        System.out.println("Batch inserted " + rows.size() + " availability rows for user " + userId);
+        return ids;
+    }
+
+    private static void bind(PreparedStatement statement, Long userId, Availability row) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        row.setCreatedAt(now);
+        row.setUpdatedAt(now);
+        row.refreshDerivedTimes();
+
+        statement.setLong(1, userId);
+        statement.setObject(2, row.getStartTime());
+        statement.setObject(3, row.getEndTime());
+        statement.setString(4, row.getTimezone());
+        statement.setString(5, row.getSource().name());
+        statement.setString(6, row.getGoogleEventId());
+        statement.setBoolean(7, row.getIsBusy());
+        statement.setString(8, row.getTitle());
+        statement.setString(9, row.getDescription());
+        statement.setBoolean(10, row.getIsRecurring());
+        statement.setString(11, row.getRecurrenceRule());
+        statement.setObject(12, row.getRecurrenceParentId());
+        statement.setObject(13, row.getOriginalStartTime());
+        statement.setObject(14, row.getCreatedAt());
+        statement.setObject(15, row.getUpdatedAt());
+        statement.setString(16, row.getLocation());
+        statement.setBoolean(17, row.getIsAllDay());
+        statement.setObject(18, row.getReminderMinutes());
+        statement.setObject(19, row.getReminderAt());
+        statement.setString(20, row.getExternalId());
+        statement.setObject(21, row.getChangeVersion());
+        statement.setObject(22, row.getStartEpoch());
+        statement.setObject(23, row.getEndEpoch());
+        statement.setObject(24, row.getSeriesEndEpoch());
+    }
+}
@@ -0,0 +1,95 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.availability.ConflictSlotDto;
+import com.friendavailability.model.Availability;
+import com.friendavailability.repository.AvailabilityRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds busy events overlapping a time range without loading full entities.
+ *
+ * Users whose timeline is already in the {@link AvailabilityIndex} are answered from memory.
+ * Otherwise the database is asked for ids and UTC epoch bounds only, and the boolean check stops
+ * at the first busy row. Users with a series that can reach the range go through the index, since
+ * its occurrences only exist after expansion; the same query reports them, so a cold check is one
+ * round-trip. Times are returned as wall-clock times in each event's zone, like the index does.
+ */
+@Component
+public class AvailabilityConflictChecker {
+
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityIndex availabilityIndex;
+
+    public AvailabilityConflictChecker(AvailabilityRepository availabilityRepository, AvailabilityIndex availabilityIndex) {
+        this.availabilityRepository = availabilityRepository;
+        this.availabilityIndex = availabilityIndex;
+        System.out.println("AvailabilityConflictChecker created");
+    }
+
+    /**
+     * Busy events overlapping the UTC range (start, end), ignoring {@code excludeId} when it is not null.
+     */
+    public List<ConflictSlotDto> findConflicts(Long userId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        List<ConflictSlotDto> conflicts = new ArrayList<>();
+        if (!availabilityIndex.isLoaded(userId)) {
+            boolean recurring = false;
+            for (Object[] row : availabilityRepository.findBusySlotsOrSeries(userId, excludeId,
+                    FreeBusyCalculator.toEpoch(start), FreeBusyCalculator.toEpoch(end))) {
+                if (Boolean.TRUE.equals(row[4])) {
+                    recurring = true;
+                    break;
+                }
+                String timezone = (String) row[3];
+                conflicts.add(new ConflictSlotDto((Long) row[0],
+                        FreeBusyCalculator.fromEpoch((Long) row[1], timezone),
+                        FreeBusyCalculator.fromEpoch((Long) row[2], timezone)));
+            }
+            if (!recurring) {
+                return conflicts;
+            }
+            conflicts.clear();
+        }
+
+        for (Availability event : indexed(userId, start, end, excludeId)) {
+            if (Boolean.TRUE.equals(event.getIsBusy())) {
+                conflicts.add(ConflictSlotDto.builder()
+                        .id(event.getId())
+                        .startTime(event.getStartTime())
+                        .endTime(event.getEndTime())
+                        .build());
+            }
+        }
+        return conflicts;
+    }
+
+    public boolean hasConflict(Long userId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        if (!availabilityIndex.isLoaded(userId)) {
+            List<Boolean> first = availabilityRepository.findFirstBusySlotOrSeries(userId, excludeId,
+                    FreeBusyCalculator.toEpoch(start), FreeBusyCalculator.toEpoch(end), PageRequest.of(0, 1));
+            if (first.isEmpty()) {
+                return false;
+            }
+            if (!Boolean.TRUE.equals(first.get(0))) {
+                return true;
+            }
+        }
+
+        for (Availability event : indexed(userId, start, end, excludeId)) {
+            if (Boolean.TRUE.equals(event.getIsBusy())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Availability> indexed(Long userId, LocalDateTime start, LocalDateTime end, Long excludeId) {
+        return excludeId == null
+                ? availabilityIndex.findOverlapping(userId, start, end, false)
+                : availabilityIndex.findOverlappingExcluding(userId, excludeId, start, end);
+    }
+}
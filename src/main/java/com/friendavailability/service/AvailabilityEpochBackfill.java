@@ -0,0 +1,83 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills {@code start_epoch}/{@code end_epoch} for rows written before those columns existed,
+ * and recomputes their {@code reminder_at} as UTC (start epoch minus the reminder minutes),
+ * replacing any value derived from the zone-local wall clock.
+ *
+ * Time zone rules live in the JDK rather than the database, so rows are converted here in
+ * pages and written back with one batched UPDATE per page. Runs while the context starts, once
+ * the schema is updated and before the web server accepts requests; beans that query the
+ * epoch columns or {@code reminder_at} declare {@code @DependsOn} on it. A failed backfill
+ * stops startup: those beans would otherwise silently skip every row it left unconverted.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class AvailabilityEpochBackfill {
+
+    private static final String SELECT_SQL = "SELECT id, start_time, end_time, timezone, reminder_minutes FROM availabilities " +
+            "WHERE start_epoch IS NULL OR end_epoch IS NULL ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL = "UPDATE availabilities SET start_epoch = ?, end_epoch = ?, reminder_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.availability.bulk.batch-size:500}")
+    private int batchSize;
+
+    public AvailabilityEpochBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        System.out.println("AvailabilityEpochBackfill created");
+    }
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            int total = 0;
+            while (true) {
+                List<Object[]> updates = new ArrayList<>(batchSize);
+                jdbcTemplate.query(SELECT_SQL, row -> {
+                    String timezone = row.getString("timezone");
+                    Timestamp start = row.getTimestamp("start_time");
+                    Timestamp end = row.getTimestamp("end_time");
+                    long startEpoch = Availability.epochOf(start.toLocalDateTime(), timezone);
+                    int reminderMinutes = row.getInt("reminder_minutes");
+                    Timestamp reminderAt = row.wasNull() ? null : Timestamp.valueOf(
+                            LocalDateTime.ofEpochSecond(startEpoch - reminderMinutes * 60L, 0, ZoneOffset.UTC));
+                    updates.add(new Object[]{
+                            startEpoch,
+                            Availability.epochOf(end.toLocalDateTime(), timezone),
+                            reminderAt,
+                            row.getLong("id")
+                    });
+                }, batchSize);
+                if (updates.isEmpty()) {
+                    break;
+                }
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+                total += updates.size();
+                if (updates.size() < batchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                System.out.println("Backfilled UTC epoch times for " + total + " availability records");
+            }
+        } catch (Exception e) {
+            System.err.println("Error backfilling availability epoch times: " + e.getMessage());
+            throw new RuntimeException("Failed to backfill availability epoch times", e);
+        }
+    }
+}
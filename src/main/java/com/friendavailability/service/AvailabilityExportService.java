@@ -0,0 +1,97 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+import com.friendavailability.model.User;
+import com.friendavailability.repository.AvailabilityRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Streams a user's availability as an iCalendar file.
+ *
+ * Rows are read in keyset pages on (startTime, id) and written out page by page, and the
+ * persistence context is cleared in between, so memory stays flat however long the history is.
+ * Archived history is written first, then the rows still in the live table.
+ */
+@Service
+public class AvailabilityExportService {
+
+    private final AvailabilityRepository availabilityRepository;
+    private final UserService userService;
+    private final AvailabilityArchive availabilityArchive;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.availability.export.page-size:500}")
+    private int pageSize;
+
+    public AvailabilityExportService(AvailabilityRepository availabilityRepository, UserService userService,
+                                     AvailabilityArchive availabilityArchive) {
+        this.availabilityRepository = availabilityRepository;
+        this.userService = userService;
+        this.availabilityArchive = availabilityArchive;
+        System.out.println("AvailabilityExportService created");
+    }
+
+    public StreamingResponseBody exportCalendar(Long userId) {
+        System.out.println("Exporting calendar for user " + userId);
+
+        User user = userService.findUserById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found with id " + userId));
+        String calendarName = user.getName() + " - LinkUp";
+
+        return outputStream -> {
+            ICalendarWriter writer = new ICalendarWriter(
+                    new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+            writer.begin(calendarName);
+
+            long exported = 0;
+            List<Availability> archived = availabilityArchive.findPage(userId, null, null);
+            while (!archived.isEmpty()) {
+                for (Availability availability : archived) {
+                    writer.write(availability);
+                }
+                exported += archived.size();
+                writer.flush();
+
+                Availability last = archived.get(archived.size() - 1);
+                entityManager.clear();
+                if (archived.size() < pageSize) {
+                    break;
+                }
+                archived = availabilityArchive.findPage(userId, last.getStartTime(), last.getId());
+            }
+
+            List<Availability> page = availabilityRepository.findByUserIdOrderByStartTimeAscIdAsc(
+                    userId, PageRequest.of(0, pageSize));
+            while (!page.isEmpty()) {
+                for (Availability availability : page) {
+                    writer.write(availability);
+                }
+                exported += page.size();
+                writer.flush();
+
+                Availability last = page.get(page.size() - 1);
+                entityManager.clear();
+                if (page.size() < pageSize) {
+                    break;
+                }
+                page = availabilityRepository.findPageAfter(userId, last.getStartTime(), last.getId(),
+                        PageRequest.of(0, pageSize));
+            }
+
+            writer.end();
+            System.out.println("Exported " + exported + " events for user " + userId);
+        };
+    }
+}
@@ -0,0 +1,261 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.availability.CalendarImportResponse;
+import com.friendavailability.model.Availability;
+import com.friendavailability.model.AvailabilitySource;
+import com.friendavailability.model.RecurrenceRule;
+import com.friendavailability.model.User;
+import com.friendavailability.repository.AvailabilityRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Imports an iCalendar file into a user's availability.
+ *
+ * Events are parsed one at a time and written in JDBC batches, each committed in its own
+ * transaction, so neither memory nor lock time grows with the file. Each chunk is checked
+ * against previously imported (UID, RECURRENCE-ID) keys, live and archived, which also catches
+ * duplicates from earlier chunks of the same file. Occurrence overrides (RECURRENCE-ID) are held
+ * only until their series row has been committed; overrides whose series never shows up are
+ * imported as standalone events at the end. Those keep their RECURRENCE-ID as
+ * {@code originalStartTime}, without a parent, so each one keeps its own import key instead of
+ * colliding with its siblings and with a series that arrives in a later import.
+ *
+ * A failure leaves the chunks committed so far in place; importing the file again skips them
+ * as duplicates.
+ */
+@Service
+public class AvailabilityImportService {
+
+    private static final String GOOGLE_UID_SUFFIX = "@google.com";
+
+    private final AvailabilityRepository availabilityRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final AvailabilityBatchWriter availabilityBatchWriter;
+    private final AvailabilityIndex availabilityIndex;
+    private final ReminderScheduler reminderScheduler;
+    private final AvailabilityArchive availabilityArchive;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.availability.bulk.batch-size:500}")
+    private int batchSize;
+
+    public AvailabilityImportService(AvailabilityRepository availabilityRepository, UserExistenceCache userExistenceCache,
+                                     AvailabilityBatchWriter availabilityBatchWriter, AvailabilityIndex availabilityIndex,
+                                     ReminderScheduler reminderScheduler, AvailabilityArchive availabilityArchive,
+                                     PlatformTransactionManager transactionManager) {
+        this.availabilityRepository = availabilityRepository;
+        this.userExistenceCache = userExistenceCache;
+        this.availabilityBatchWriter = availabilityBatchWriter;
+        this.availabilityIndex = availabilityIndex;
+        this.reminderScheduler = reminderScheduler;
+        this.availabilityArchive = availabilityArchive;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        System.out.println("AvailabilityImportService created");
+    }
+
+    public CalendarImportResponse importCalendar(Long userId, InputStream input) throws IOException {
+        System.out.println("Importing calendar for user " + userId);
+
+        User user = userExistenceCache.requireReference(userId);
+
+        ImportRun run = new ImportRun(user);
+        int malformed = ICalendarReader.read(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), run::accept);
+        run.finish();
+
+        System.out.println("Imported " + run.imported + " of " + run.parsed + " events for user " + userId
+                + " (" + run.duplicates + " duplicates, " + run.skipped + " skipped, " + malformed + " malformed)");
+        return CalendarImportResponse.builder()
+                .userId(userId)
+                .parsed(run.parsed + malformed)
+                .imported(run.imported)
+                .duplicates(run.duplicates)
+                .skipped(run.skipped)
+                .malformed(malformed)
+                .build();
+    }
+
+    private Availability toAvailability(User user, ICalendarReader.Event event) {
+        boolean google = event.getUid() != null && event.getUid().endsWith(GOOGLE_UID_SUFFIX);
+        Availability availability = Availability.builder()
+                .user(user)
+                .startTime(event.getStart())
+                .endTime(event.getEnd())
+                .timezone(event.getTimezone())
+                .title(truncate(event.getSummary(), 200))
+                .description(truncate(event.getDescription(), 500))
+                .location(truncate(event.getLocation(), 500))
+                .isBusy(!event.isTransparent())
+                .isAllDay(event.isAllDay())
+                .reminderMinutes(event.getReminderMinutes())
+                .source(google ? AvailabilitySource.GOOGLE_CALENDAR : AvailabilitySource.IMPORTED)
+                .googleEventId(google ? truncate(event.getUid().substring(0, event.getUid().length() - GOOGLE_UID_SUFFIX.length()), 255) : null)
+                .externalId(truncate(event.getUid(), 255))
+                .originalStartTime(event.getRecurrenceId())
+                .build();
+
+        if (event.getRecurrenceRule() != null && event.getRecurrenceId() == null) {
+            try {
+                RecurrenceRule.parse(event.getRecurrenceRule(), Availability.zoneOf(availability.getTimezone()));
+                availability.setIsRecurring(true);
+                availability.setRecurrenceRule(truncate(event.getRecurrenceRule(), 255));
+            } catch (RuntimeException e) {
+                // Unsupported rules are imported as their first occurrence only
+                System.out.println("Importing event " + event.getUid() + " without recurrence: " + e.getMessage());
+            }
+        }
+        return availability;
+    }
+
+    private static String truncate(String value, int length) {
+        return value == null || value.length() <= length ? value : value.substring(0, length);
+    }
+
+    private static String importKey(String externalId, LocalDateTime originalStartTime) {
+        return externalId + "|" + (originalStartTime != null ? originalStartTime : "");
+    }
+
+    /** State of a single import: the current chunk, overrides waiting for their series and counters. */
+    private final class ImportRun {
+        private final User user;
+        private final List<Availability> batch = new ArrayList<>();
+        // Keyed by import key, so a repeated override is caught while it is still waiting
+        private final Map<String, Availability> pendingOverrides = new LinkedHashMap<>();
+        private final long now = FreeBusyCalculator.toEpoch(FreeBusyCalculator.nowUtc());
+        private int parsed;
+        private int imported;
+        private int duplicates;
+        private int skipped;
+
+        private ImportRun(User user) {
+            this.user = user;
+        }
+
+        void accept(ICalendarReader.Event event) {
+            parsed++;
+            if (event.isCancelled()) {
+                skipped++;
+                return;
+            }
+            Availability availability = toAvailability(user, event);
+            if (!availability.isValidTimeRange()) {
+                skipped++;
+                return;
+            }
+
+            if (availability.getOriginalStartTime() != null && availability.getExternalId() != null) {
+                String key = importKey(availability.getExternalId(), availability.getOriginalStartTime());
+                if (pendingOverrides.putIfAbsent(key, availability) != null) {
+                    duplicates++;
+                }
+                return;
+            }
+            // Without a UID an override cannot be matched to its series
+            availability.setOriginalStartTime(null);
+            batch.add(availability);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void finish() {
+            flush();
+            // Series not in this calendar or the database: keep the occurrences as standalone events
+            batch.addAll(pendingOverrides.values());
+            pendingOverrides.clear();
+            writeChunk();
+        }
+
+        /** Commits the current chunk, then queues the overrides whose series now exists. */
+        private void flush() {
+            writeChunk();
+            if (pendingOverrides.isEmpty()) {
+                return;
+            }
+
+            Set<String> seriesUids = new HashSet<>();
+            pendingOverrides.values().forEach(override -> seriesUids.add(override.getExternalId()));
+            Map<String, Long> seriesIds = new HashMap<>();
+            for (Object[] row : availabilityRepository.findRecurringIdsByExternalId(user.getId(), seriesUids)) {
+                seriesIds.put((String) row[0], (Long) row[1]);
+            }
+
+            Iterator<Availability> pending = pendingOverrides.values().iterator();
+            while (pending.hasNext()) {
+                Availability override = pending.next();
+                Long seriesId = seriesIds.get(override.getExternalId());
+                if (seriesId != null) {
+                    override.setRecurrenceParentId(seriesId);
+                    batch.add(override);
+                    pending.remove();
+                }
+            }
+            if (batch.size() >= batchSize) {
+                writeChunk();
+            }
+        }
+
+        private void writeChunk() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            batch.clear();
+        }
+
+        private void write(List<Availability> rows) {
+            Set<String> externalIds = new HashSet<>();
+            rows.forEach(row -> {
+                if (row.getExternalId() != null) {
+                    externalIds.add(row.getExternalId());
+                }
+            });
+
+            Set<String> existing = new HashSet<>();
+            if (!externalIds.isEmpty()) {
+                for (Object[] key : availabilityRepository.findImportedKeys(user.getId(), externalIds)) {
+                    existing.add(importKey((String) key[0], (LocalDateTime) key[1]));
+                }
+                // Events moved to the archive were imported too; without this they would come back
+                for (Object[] key : availabilityArchive.findImportedKeys(user.getId(), externalIds)) {
+                    existing.add(importKey((String) key[0], (LocalDateTime) key[1]));
+                }
+            }
+
+            List<Availability> toInsert = new ArrayList<>(rows.size());
+            for (Availability row : rows) {
+                // existing also collects the keys of this chunk, so repeats within it are skipped too
+                if (row.getExternalId() != null && !existing.add(importKey(row.getExternalId(), row.getOriginalStartTime()))) {
+                    duplicates++;
+                } else {
+                    toInsert.add(row);
+                }
+            }
+            if (toInsert.isEmpty()) {
+                return;
+            }
+
+            imported += availabilityBatchWriter.insertAll(user.getId(), toInsert).size();
+            List<Availability> upcoming = new ArrayList<>();
+            for (Availability row : toInsert) {
+                if (row.isRecurringMaster() || FreeBusyCalculator.startEpoch(row) > now) {
+                    upcoming.add(row);
+                }
+            }
+            // Both apply once this chunk commits
+            availabilityIndex.invalidate(user.getId());
+            reminderScheduler.scheduleAll(upcoming);
+        }
+    }
+}
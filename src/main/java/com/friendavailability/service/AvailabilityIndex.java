@@ -0,0 +1,479 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+import com.friendavailability.model.AvailabilitySource;
+import com.friendavailability.model.RecurrenceRule;
+import com.friendavailability.repository.AvailabilityRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.friendavailability.service.FreeBusyCalculator.endEpoch;
+import static com.friendavailability.service.FreeBusyCalculator.fromEpoch;
+import static com.friendavailability.service.FreeBusyCalculator.startEpoch;
+import static com.friendavailability.service.FreeBusyCalculator.toEpoch;
+
+/**
+ * In-memory, write-through index of each user's availability.
+ *
+ * Every user's events are kept as a snapshot of parallel arrays sorted by start time
+ * (UTC epoch seconds, converted from each event's own time zone), with a running maximum of end times so overlap queries can binary
+ * search both ends of the candidate range instead of scanning the table.
+ * Recurring masters are stored once and expanded into occurrences only for the queried window.
+ * Users are loaded on first access and evicted once they have been idle for a while.
+ */
+@Component
+@DependsOn("availabilityEpochBackfill")
+public class AvailabilityIndex {
+
+    private final AvailabilityRepository availabilityRepository;
+    private final Map<Long, UserTimeline> timelines = new ConcurrentHashMap<>();
+    // Per-user write counters: a cold load is only published if no write to the same user raced it
+    private final Map<Long, AtomicLong> writeSequences = new ConcurrentHashMap<>();
+
+    @Value("${app.availability.index.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${app.availability.index.idle-minutes:30}")
+    private long idleMinutes;
+
+    @Value("${app.availability.index.max-cached-days:400}")
+    private int maxCachedDays;
+
+    public AvailabilityIndex(AvailabilityRepository availabilityRepository) {
+        this.availabilityRepository = availabilityRepository;
+        System.out.println("AvailabilityIndex created");
+    }
+
+    /**
+     * Events overlapping [start, end]. When {@code inclusive} is true, events touching the
+     * window boundaries are included (matches findByUserIdAndDateRangeOverlap); otherwise only
+     * events with a real overlap are returned (matches findOverlappingSlots).
+     */
+    public List<Availability> findOverlapping(Long userId, LocalDateTime start, LocalDateTime end, boolean inclusive) {
+        return timeline(userId).overlapping(start, end, inclusive, null);
+    }
+
+    public List<Availability> findOverlappingExcluding(Long userId, Long excludeId, LocalDateTime start, LocalDateTime end) {
+        return timeline(userId).overlapping(start, end, false, excludeId);
+    }
+
+    /**
+     * The occurrence of a recurring master starting at the given time (in the master's zone),
+     * if the series has one.
+     */
+    public Optional<Availability> findOccurrence(Availability master, LocalDateTime originalStartTime) {
+        LocalDateTime utc = fromEpoch(Availability.epochOf(originalStartTime, master.getTimezone()));
+        return expand(List.of(master), Map.of(), utc, utc, true, null).stream()
+                .filter(occurrence -> occurrence.getStartTime().equals(originalStartTime))
+                .findFirst();
+    }
+
+    /**
+     * Busy bitmaps for every day in [from, to], flattened as two longs per day (see {@link DayBitmap}).
+     * Days are computed once and kept with the user's timeline, up to {@code max-cached-days} per
+     * user; writes only refresh the days they touch.
+     */
+    public long[] getDayBitmaps(Long userId, LocalDate from, LocalDate to) {
+        return timeline(userId).dayBitmaps(from, to, maxCachedDays);
+    }
+
+    public boolean isLoaded(Long userId) {
+        return timelines.containsKey(userId);
+    }
+
+    /**
+     * Records a created or updated event. Applied once the surrounding transaction commits;
+     * a rollback drops the user's timeline so it is reloaded from the database.
+     */
+    public void put(Availability availability) {
+        Long userId = availability.getUserId();
+        afterCommit(userId, () -> timelines.computeIfPresent(userId, (id, timeline) -> timeline.with(availability)));
+    }
+
+    public void remove(Long userId, Long availabilityId) {
+        afterCommit(userId, () -> timelines.computeIfPresent(userId, (id, timeline) -> timeline.without(availabilityId)));
+    }
+
+    /**
+     * Drops the user's timeline once the transaction commits, for writes that bypass
+     * {@link #put} (e.g. batch inserts).
+     */
+    public void invalidate(Long userId) {
+        afterCommit(userId, () -> evict(userId));
+    }
+
+    public void evict(Long userId) {
+        writeSequence(userId).incrementAndGet();
+        timelines.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.index.eviction-interval-ms:60000}")
+    public void evictInactiveUsers() {
+        long cutoff = System.currentTimeMillis() - idleMinutes * 60_000L;
+        timelines.entrySet().removeIf(entry -> entry.getValue().lastAccess < cutoff);
+
+        int overflow = timelines.size() - maxUsers;
+        if (overflow > 0) {
+            timelines.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .limit(overflow)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(timelines::remove);
+        }
+        // A load in flight for a dropped counter sees a different (or no) counter and is not published
+        writeSequences.keySet().removeIf(userId -> !timelines.containsKey(userId));
+    }
+
+    private UserTimeline timeline(Long userId) {
+        UserTimeline timeline = timelines.get(userId);
+        if (timeline == null) {
+            AtomicLong writeSequence = writeSequence(userId);
+            long sequence = writeSequence.get();
+            List<Availability> events = availabilityRepository.findByUserIdOrderByStartTime(userId);
+            timeline = UserTimeline.of(events);
+            System.out.println("Loaded " + events.size() + " events into availability index for user " + userId);
+
+            // A write that committed while we were loading may be missing from the snapshot.
+            // Writes bump the sequence before applying themselves, so re-checking after
+            // publishing catches a write whose update found no timeline to apply to.
+            if (unchanged(userId, writeSequence, sequence)) {
+                UserTimeline existing = timelines.putIfAbsent(userId, timeline);
+                if (existing != null) {
+                    timeline = existing;
+                } else if (!unchanged(userId, writeSequence, sequence)) {
+                    // Only our own snapshot: a fresher timeline published meanwhile stays
+                    timelines.remove(userId, timeline);
+                }
+            }
+        }
+        timeline.lastAccess = System.currentTimeMillis();
+        return timeline;
+    }
+
+    private AtomicLong writeSequence(Long userId) {
+        return writeSequences.computeIfAbsent(userId, id -> new AtomicLong());
+    }
+
+    private boolean unchanged(Long userId, AtomicLong writeSequence, long sequence) {
+        return writeSequences.get(userId) == writeSequence && writeSequence.get() == sequence;
+    }
+
+    private void afterCommit(Long userId, Runnable action) {
+        writeSequence(userId).incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    // Bumped again on commit: a reader that cold-loaded after registration
+                    // may have read the database before this write was visible
+                    writeSequence(userId).incrementAndGet();
+                    action.run();
+                } else {
+                    evict(userId);
+                }
+            }
+        });
+    }
+
+    /**
+     * A generated occurrence of a recurring master. It carries the master's id so clients can
+     * edit the series, and {@code originalStartTime} identifies the occurrence itself.
+     */
+    static Availability occurrenceOf(Availability master, LocalDateTime start) {
+        return Availability.builder()
+                .id(master.getId())
+                .user(master.getUser())
+                .startTime(start)
+                .endTime(start.plusSeconds(toEpoch(master.getEndTime()) - toEpoch(master.getStartTime())))
+                .timezone(master.getTimezone())
+                .source(AvailabilitySource.RECURRING)
+                .isBusy(master.getIsBusy())
+                .title(master.getTitle())
+                .description(master.getDescription())
+                .location(master.getLocation())
+                .isAllDay(master.getIsAllDay())
+                .reminderMinutes(master.getReminderMinutes())
+                .isRecurring(true)
+                .recurrenceRule(master.getRecurrenceRule())
+                .originalStartTime(start)
+                .createdAt(master.getCreatedAt())
+                .updatedAt(master.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Expands the masters into occurrences overlapping the UTC window, skipping occurrences that
+     * have been replaced by an OVERRIDE row. Occurrences are generated in the master's own zone.
+     */
+    static List<Availability> expand(Collection<Availability> masters, Map<Long, Set<LocalDateTime>> overridden,
+                                     LocalDateTime start, LocalDateTime end, boolean inclusive, Long excludeId) {
+        List<Availability> occurrences = new ArrayList<>();
+        for (Availability master : masters) {
+            if (excludeId != null && excludeId.equals(master.getId())) {
+                continue;
+            }
+            RecurrenceRule rule;
+            try {
+                rule = RecurrenceRule.parse(master.getRecurrenceRule(), Availability.zoneOf(master.getTimezone()));
+            } catch (RuntimeException e) {
+                System.err.println("Skipping availability " + master.getId() + " with invalid recurrence rule: " + e.getMessage());
+                continue;
+            }
+            long duration = toEpoch(master.getEndTime()) - toEpoch(master.getStartTime());
+            Set<LocalDateTime> skipped = overridden.getOrDefault(master.getId(), Set.of());
+            LocalDateTime from = fromEpoch(toEpoch(start), master.getTimezone());
+            LocalDateTime to = fromEpoch(toEpoch(end), master.getTimezone());
+            for (LocalDateTime occurrenceStart : rule.occurrences(master.getStartTime(), duration, from, to, inclusive)) {
+                if (!skipped.contains(occurrenceStart)) {
+                    occurrences.add(occurrenceOf(master, occurrenceStart));
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Immutable snapshot of a single user's events. Writes build a new snapshot.
+     * Recurring masters are kept aside and expanded per query; everything else (including
+     * OVERRIDE rows) lives in the sorted arrays.
+     */
+    private static final class UserTimeline {
+        private final Availability[] events;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds;
+        private final List<Availability> masters;
+        private final Map<Long, Set<LocalDateTime>> overridden;
+        // Busy bitmap per epoch day, filled lazily by readers and carried over on writes
+        private final Map<Long, long[]> dayBits;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private UserTimeline(List<Availability> all, Map<Long, long[]> dayBits) {
+            List<Availability> regular = new ArrayList<>(all.size());
+            List<Availability> masters = new ArrayList<>();
+            Map<Long, Set<LocalDateTime>> overridden = new HashMap<>();
+            for (Availability availability : all) {
+                if (availability.isRecurringMaster()) {
+                    masters.add(availability);
+                    continue;
+                }
+                regular.add(availability);
+                if (availability.isOccurrenceOverride()) {
+                    overridden.computeIfAbsent(availability.getRecurrenceParentId(), id -> new HashSet<>())
+                            .add(availability.getOriginalStartTime());
+                }
+            }
+
+            Availability[] events = regular.toArray(new Availability[0]);
+            Arrays.sort(events, Comparator.comparingLong(FreeBusyCalculator::startEpoch)
+                    .thenComparing(Availability::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+            this.events = events;
+            this.masters = masters;
+            this.overridden = overridden;
+            this.dayBits = dayBits;
+            this.starts = new long[events.length];
+            this.ends = new long[events.length];
+            this.maxEnds = new long[events.length];
+
+            long maxEnd = Long.MIN_VALUE;
+            for (int i = 0; i < events.length; i++) {
+                starts[i] = startEpoch(events[i]);
+                ends[i] = endEpoch(events[i]);
+                maxEnd = Math.max(maxEnd, ends[i]);
+                maxEnds[i] = maxEnd;
+            }
+        }
+
+        static UserTimeline of(List<Availability> events) {
+            return new UserTimeline(events, new ConcurrentHashMap<>());
+        }
+
+        private List<Availability> all() {
+            List<Availability> all = new ArrayList<>(events.length + masters.size() + 1);
+            Collections.addAll(all, events);
+            all.addAll(masters);
+            return all;
+        }
+
+        UserTimeline with(Availability availability) {
+            List<Availability> updated = all();
+            Availability previous = find(updated, availability.getId());
+            updated.removeIf(event -> Objects.equals(event.getId(), availability.getId()));
+            updated.add(availability);
+
+            Map<Long, long[]> bits = new ConcurrentHashMap<>(dayBits);
+            if (affectsRecurrence(availability) || (previous != null && affectsRecurrence(previous))) {
+                bits.clear();
+            } else if (previous == null) {
+                orInto(bits, availability);
+            } else {
+                dropDays(bits, previous);
+                dropDays(bits, availability);
+            }
+            return new UserTimeline(updated, bits);
+        }
+
+        UserTimeline without(Long availabilityId) {
+            List<Availability> updated = all();
+            Availability previous = find(updated, availabilityId);
+            updated.removeIf(event -> Objects.equals(event.getId(), availabilityId)
+                    || Objects.equals(event.getRecurrenceParentId(), availabilityId));
+
+            Map<Long, long[]> bits = new ConcurrentHashMap<>(dayBits);
+            if (previous == null || affectsRecurrence(previous)) {
+                bits.clear();
+            } else {
+                dropDays(bits, previous);
+            }
+            return new UserTimeline(updated, bits);
+        }
+
+        private static Availability find(List<Availability> events, Long id) {
+            for (Availability event : events) {
+                if (Objects.equals(event.getId(), id)) {
+                    return event;
+                }
+            }
+            return null;
+        }
+
+        private static boolean affectsRecurrence(Availability availability) {
+            return availability.isRecurringMaster() || availability.isOccurrenceOverride();
+        }
+
+        /** A new busy event can only add busy buckets, so cached days are updated in place. */
+        private static void orInto(Map<Long, long[]> bits, Availability availability) {
+            if (!Boolean.TRUE.equals(availability.getIsBusy()) || !availability.isValidTimeRange()) {
+                return;
+            }
+            long start = startEpoch(availability);
+            long end = endEpoch(availability);
+            for (long day = Math.floorDiv(start, DayBitmap.SECONDS_PER_DAY);
+                 day <= Math.floorDiv(end - 1, DayBitmap.SECONDS_PER_DAY); day++) {
+                long[] cached = bits.get(day);
+                if (cached != null) {
+                    long[] copy = cached.clone();
+                    DayBitmap.scatter(copy, day * DayBitmap.SECONDS_PER_DAY, start, end);
+                    bits.put(day, copy);
+                }
+            }
+        }
+
+        /** Changed or removed events may free buckets, so their days are recomputed on next read. */
+        private static void dropDays(Map<Long, long[]> bits, Availability availability) {
+            long start = Math.floorDiv(startEpoch(availability), DayBitmap.SECONDS_PER_DAY);
+            long end = Math.floorDiv(endEpoch(availability), DayBitmap.SECONDS_PER_DAY);
+            if (end - start > bits.size()) {
+                bits.keySet().removeIf(day -> day >= start && day <= end);
+                return;
+            }
+            for (long day = start; day <= end; day++) {
+                bits.remove(day);
+            }
+        }
+
+        /**
+         * Once the cache would exceed {@code maxDays}, it is cleared before the new days are
+         * added; ranges longer than that are computed without being cached.
+         */
+        long[] dayBitmaps(LocalDate from, LocalDate to, int maxDays) {
+            long firstDay = from.toEpochDay();
+            int days = (int) (to.toEpochDay() - firstDay + 1);
+            long[] result = new long[days * 2];
+
+            // Read each day once: another reader may clear the cache between two lookups
+            boolean missing = false;
+            for (int i = 0; i < days && !missing; i++) {
+                long[] cached = dayBits.get(firstDay + i);
+                if (cached == null) {
+                    missing = true;
+                } else {
+                    result[i * 2] = cached[0];
+                    result[i * 2 + 1] = cached[1];
+                }
+            }
+            if (!missing) {
+                return result;
+            }
+
+            Arrays.fill(result, 0);
+            long rangeStart = firstDay * DayBitmap.SECONDS_PER_DAY;
+            long rangeEnd = rangeStart + days * DayBitmap.SECONDS_PER_DAY;
+            for (Availability event : overlapping(fromEpoch(rangeStart), fromEpoch(rangeEnd), false, null)) {
+                if (Boolean.TRUE.equals(event.getIsBusy())) {
+                    DayBitmap.scatter(result, rangeStart, startEpoch(event), endEpoch(event));
+                }
+            }
+            if (days <= maxDays) {
+                if (dayBits.size() + days > maxDays) {
+                    dayBits.clear();
+                }
+                for (int i = 0; i < days; i++) {
+                    dayBits.put(firstDay + i, new long[]{result[i * 2], result[i * 2 + 1]});
+                }
+            }
+            return result;
+        }
+
+        List<Availability> overlapping(LocalDateTime start, LocalDateTime end, boolean inclusive, Long excludeId) {
+            long from = toEpoch(start);
+            long to = toEpoch(end);
+            // Candidates start before the window ends...
+            int hi = inclusive ? upperBound(starts, to) : lowerBound(starts, to);
+            // ...and, since maxEnds is non-decreasing, nothing before lo can reach the window.
+            int lo = inclusive ? lowerBound(maxEnds, from) : upperBound(maxEnds, from);
+
+            List<Availability> result = new ArrayList<>(Math.max(0, hi - lo));
+            for (int i = lo; i < hi; i++) {
+                boolean reaches = inclusive ? ends[i] >= from : ends[i] > from;
+                if (reaches && (excludeId == null || !excludeId.equals(events[i].getId()))) {
+                    result.add(events[i]);
+                }
+            }
+
+            if (!masters.isEmpty()) {
+                List<Availability> occurrences = expand(masters, overridden, start, end, inclusive, excludeId);
+                if (!occurrences.isEmpty()) {
+                    result.addAll(occurrences);
+                    result.sort(Comparator.comparingLong(FreeBusyCalculator::startEpoch));
+                }
+            }
+            return result;
+        }
+
+        /** First index whose value is >= key. */
+        private static int lowerBound(long[] values, long key) {
+            int lo = 0, hi = values.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        /** First index whose value is > key. */
+        private static int upperBound(long[] values, long key) {
+            int lo = 0, hi = values.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] <= key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
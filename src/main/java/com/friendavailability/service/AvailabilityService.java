@@ -1,39 +1,216 @@
 package com.friendavailability.service;
 
+import com.friendavailability.dto.availability.AvailabilityStatsDto;
+import com.friendavailability.dto.availability.BulkAvailabilityResponse;
+import com.friendavailability.dto.availability.CalendarChangesDto;
+import com.friendavailability.dto.availability.CalendarSlotDto;
+import com.friendavailability.dto.availability.ConflictSlotDto;
+import com.friendavailability.dto.availability.CreateAvailabilityRequest;
+import com.friendavailability.dto.availability.DayBitmapDto;
+import com.friendavailability.dto.availability.FreeSlotDto;
 import com.friendavailability.model.Availability;
 import com.friendavailability.model.AvailabilitySource;
+import com.friendavailability.model.AvailabilityTombstone;
+import com.friendavailability.model.RecurrenceRule;
 import com.friendavailability.model.User;
 import com.friendavailability.repository.AvailabilityRepository;
+import com.friendavailability.repository.AvailabilityTombstoneRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
 @Transactional
 public class AvailabilityService {
+    private static final int MAX_BITMAP_DAYS = 366;
+    private static final int MAX_BULK_EVENTS = 5000;
+    private static final int MAX_DELTA_CHANGES = 1000;
+    private static final int DEFAULT_NEXT_FREE_MINUTES = 30;
+    private static final int MAX_NEXT_FREE_USERS = 100;
+    // Next-slot searches read the index a week at a time and give up after the horizon
+    private static final long SEARCH_CHUNK_SECONDS = 7 * 24 * 60 * 60;
+    private static final long SEARCH_HORIZON_SECONDS = 90 * 24 * 60 * 60;
+
     private final AvailabilityRepository availabilityRepository;
-    private final UserService userService;
+    private final UserExistenceCache userExistenceCache;
+    private final AvailabilityIndex availabilityIndex;
+    private final AvailabilityBatchWriter availabilityBatchWriter;
+    private final AvailabilityConflictChecker conflictChecker;
+    private final ReminderScheduler reminderScheduler;
+    private final CalendarVersionTracker calendarVersions;
+    private final AvailabilityTombstoneRepository tombstoneRepository;
+    private final AvailabilityArchive availabilityArchive;
+    private final AvailabilityStatsService statsService;
 
     @Autowired
-    public AvailabilityService(AvailabilityRepository availabilityRepository, UserService userService){
+    public AvailabilityService(AvailabilityRepository availabilityRepository, UserExistenceCache userExistenceCache,
+                               AvailabilityIndex availabilityIndex, AvailabilityBatchWriter availabilityBatchWriter,
+                               AvailabilityConflictChecker conflictChecker, ReminderScheduler reminderScheduler,
+                               CalendarVersionTracker calendarVersions, AvailabilityTombstoneRepository tombstoneRepository,
+                               AvailabilityArchive availabilityArchive, AvailabilityStatsService statsService){
         this.availabilityRepository = availabilityRepository;
-        this.userService = userService;
+        this.userExistenceCache = userExistenceCache;
+        this.availabilityIndex = availabilityIndex;
+        this.availabilityBatchWriter = availabilityBatchWriter;
+        this.conflictChecker = conflictChecker;
+        this.reminderScheduler = reminderScheduler;
+        this.calendarVersions = calendarVersions;
+        this.tombstoneRepository = tombstoneRepository;
+        this.availabilityArchive = availabilityArchive;
+        this.statsService = statsService;
         System.out.println("AvailabilityService created");
     }
 
     public Availability createAvailability(Long userId, LocalDateTime startTime, LocalDateTime endTime,
                                            String title, String description, String location,
-                                           Boolean isBusy, Boolean isAllDay, Integer reminderMinutes){
+                                           Boolean isBusy, Boolean isAllDay, Integer reminderMinutes,
+                                           String recurrenceRule){
 
         System.out.println("Creating availability for user with id " + userId + ": " + description);
 
-        User user = userService.findUserById(userId).
-                orElseThrow(() -> new RuntimeException("User not found with id " + userId));
+        User user = userExistenceCache.requireReference(userId);
+
+        Availability availability = buildAvailability(user, startTime, endTime, title, description, location,
+                isBusy, isAllDay, reminderMinutes, recurrenceRule);
+
+        validateAvailability(availability);
+
+        List<ConflictSlotDto> conflicts = conflictChecker.findConflicts(userId, startTime, endTime, null);
+        if(!conflicts.isEmpty()){
+            System.out.println("Warning: Found " + conflicts.size() + " potential conflicts for new availability");
+            conflicts.forEach(c ->
+                    System.out.println("Conflict: " + c.getId() + " (" + c.getStartTime() + "-" + c.getEndTime() + ")"));
+        }
+        availability.setChangeVersion(calendarVersions.next(userId));
+        Availability savedAvailability = availabilityRepository.save(availability);
+        statsService.recordCreated(savedAvailability);
+        availabilityIndex.put(savedAvailability);
+        reminderScheduler.schedule(savedAvailability);
+        System.out.println("Created availability: " + savedAvailability);
+        return savedAvailability;
+    }
+
+    /**
+     * Creates many events for one user in a single transaction.
+     *
+     * Everything is validated in memory first; conflicts are found with one sweep over the
+     * sorted batch plus one range lookup of the user's existing busy time, and the rows are
+     * written with JDBC batch inserts. Conflicting events are reported, and dropped when
+     * {@code skipConflicts} is set; of two events in the batch that overlap, the earlier one
+     * is kept.
+     */
+    public BulkAvailabilityResponse createAvailabilityBulk(Long userId, List<CreateAvailabilityRequest> events,
+                                                           boolean skipConflicts) {
+        System.out.println("Bulk creating " + events.size() + " availability records for user " + userId);
+
+        if (events.size() > MAX_BULK_EVENTS) {
+            throw new RuntimeException("Cannot create more than " + MAX_BULK_EVENTS + " events at once");
+        }
+
+        User user = userExistenceCache.requireReference(userId);
+
+        List<Availability> rows = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            CreateAvailabilityRequest event = events.get(i);
+            try {
+                if (event.getStartTime() == null || event.getEndTime() == null) {
+                    throw new RuntimeException("Start and end time are required");
+                }
+                Availability availability = buildAvailability(user, event.getStartTime(), event.getEndTime(),
+                        event.getTitle(), event.getDescription(), event.getLocation(), event.getIsBusy(),
+                        event.getIsAllDay(), event.getReminderMinutes(), event.getRecurrenceRule());
+                validateAvailability(availability);
+                rows.add(availability);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Event " + i + ": " + e.getMessage());
+            }
+        }
+
+        boolean[] conflicting = findBulkConflicts(userId, rows, skipConflicts);
+        int conflicts = 0;
+        List<Availability> toInsert = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (conflicting[i]) {
+                conflicts++;
+                if (skipConflicts) {
+                    continue;
+                }
+            }
+            toInsert.add(rows.get(i));
+        }
+
+        List<Long> ids = availabilityBatchWriter.insertAll(userId, toInsert);
+        availabilityIndex.invalidate(userId);
+        reminderScheduler.scheduleAll(toInsert);
+
+        System.out.println("Bulk created " + ids.size() + " availability records for user " + userId
+                + " (" + conflicts + " conflicts)");
+        return BulkAvailabilityResponse.builder()
+                .userId(userId)
+                .received(events.size())
+                .created(ids.size())
+                .conflicts(conflicts)
+                .skipped(rows.size() - toInsert.size())
+                .createdIds(ids)
+                .build();
+    }
+
+    /**
+     * Flags busy rows that overlap an existing busy event or an earlier busy row of the batch.
+     *
+     * Rows are visited by start time. When {@code skipConflicts} is set, flagged rows are dropped
+     * and so cannot make later rows conflict: of two overlapping rows the first one is kept.
+     */
+    private boolean[] findBulkConflicts(Long userId, List<Availability> rows, boolean skipConflicts) {
+        boolean[] conflicting = new boolean[rows.size()];
+        List<Integer> busy = new ArrayList<>();
+        long spanStart = Long.MAX_VALUE;
+        long spanEnd = Long.MIN_VALUE;
+        for (int i = 0; i < rows.size(); i++) {
+            if (Boolean.TRUE.equals(rows.get(i).getIsBusy())) {
+                busy.add(i);
+                spanStart = Math.min(spanStart, FreeBusyCalculator.startEpoch(rows.get(i)));
+                spanEnd = Math.max(spanEnd, FreeBusyCalculator.endEpoch(rows.get(i)));
+            }
+        }
+        if (busy.isEmpty()) {
+            return conflicting;
+        }
+        busy.sort(Comparator.comparingLong(i -> FreeBusyCalculator.startEpoch(rows.get(i))));
+
+        // Existing events: one lookup over the batch's whole span, merged into disjoint busy pairs.
+        long[] existing = FreeBusyCalculator.merge(FreeBusyCalculator.encode(
+                availabilityIndex.findOverlapping(userId, FreeBusyCalculator.fromEpoch(spanStart),
+                        FreeBusyCalculator.fromEpoch(spanEnd), false),
+                spanStart, spanEnd, true));
+        int cursor = 0;
+        // Furthest end among the rows that will be written
+        long acceptedEnd = Long.MIN_VALUE;
+        for (int i : busy) {
+            long start = FreeBusyCalculator.startEpoch(rows.get(i));
+            long end = FreeBusyCalculator.endEpoch(rows.get(i));
+            // Rows are visited by start time, so pairs ending before this start are done with.
+            while (cursor < existing.length && existing[cursor + 1] <= start) {
+                cursor += 2;
+            }
+            conflicting[i] = (cursor < existing.length && existing[cursor] < end) || start < acceptedEnd;
+            if (!conflicting[i] || !skipConflicts) {
+                acceptedEnd = Math.max(acceptedEnd, end);
+            }
+        }
+        return conflicting;
+    }
 
+    private Availability buildAvailability(User user, LocalDateTime startTime, LocalDateTime endTime,
+                                           String title, String description, String location,
+                                           Boolean isBusy, Boolean isAllDay, Integer reminderMinutes,
+                                           String recurrenceRule) {
         Availability availability = Availability.builder()
                 .user(user)
                 .startTime(startTime)
@@ -47,17 +224,13 @@ public class AvailabilityService {
                 .source(AvailabilitySource.MANUAL)
                 .build();
 
-        validateAvailability(availability);
-
-        List<Availability> conflicts = checkConflicts(userId, startTime, endTime);
-        if(!conflicts.isEmpty()){
-            System.out.println("Warning: Found " + conflicts.size() + " potential conflicts for new availability");
-            conflicts.forEach(c ->
-                    System.out.println("Conflict: " + c.getTitle() + " (" + c.getStartTime() + "-" + c.getEndTime() + ")"));
+        if (recurrenceRule != null && !recurrenceRule.trim().isEmpty()) {
+            RecurrenceRule.parse(recurrenceRule, Availability.zoneOf(availability.getTimezone()));
+            availability.setIsRecurring(true);
+            availability.setRecurrenceRule(recurrenceRule.trim());
+            availability.setSource(AvailabilitySource.RECURRING);
         }
-        Availability savedAvailability = availabilityRepository.save(availability);
-        System.out.println("Created availability: " + savedAvailability);
-        return savedAvailability;
+        return availability;
     }
 
     public Optional<Availability> updateAvailability(Long id, LocalDateTime startTime, LocalDateTime endTime,
@@ -72,6 +245,7 @@ public class AvailabilityService {
         }
 
         Availability availability = availabilityOpt.get();
+        boolean wasBusy = Boolean.TRUE.equals(availability.getIsBusy());
 
         if (startTime != null) availability.setStartTime(startTime);
         if (endTime != null) availability.setEndTime(endTime);
@@ -84,26 +258,119 @@ public class AvailabilityService {
 
         validateAvailability(availability);
 
-        List<Availability> conflicts = availabilityRepository.findOverlappingSlotsExcluding(
-                availability.getUser().getId(),
-                id,
+        List<ConflictSlotDto> conflicts = conflictChecker.findConflicts(
+                availability.getUserId(),
                 availability.getStartTime(),
-                availability.getEndTime()
+                availability.getEndTime(),
+                id
         );
 
         if (!conflicts.isEmpty()) {
             System.out.println("Warning: Found " + conflicts.size() + " potential conflicts after update");
         }
 
+        availability.setChangeVersion(calendarVersions.next(availability.getUserId()));
         Availability updatedAvailability = availabilityRepository.save(availability);
+        statsService.recordUpdated(wasBusy, updatedAvailability);
+        availabilityIndex.put(updatedAvailability);
+        reminderScheduler.schedule(updatedAvailability);
         System.out.println("Updated availability: " + updatedAvailability);
         return Optional.of(updatedAvailability);
     }
 
+    /**
+     * Replaces a single occurrence of a recurring series with an OVERRIDE row. Fields that are
+     * not given are copied from the series; overriding the same occurrence again updates the
+     * existing OVERRIDE row.
+     */
+    public Availability overrideOccurrence(Long masterId, LocalDateTime originalStartTime,
+                                           LocalDateTime startTime, LocalDateTime endTime,
+                                           String title, String description, String location,
+                                           Boolean isBusy, Boolean isAllDay, Integer reminderMinutes){
+
+        System.out.println("Overriding occurrence " + originalStartTime + " of recurring availability " + masterId);
+
+        Availability master = availabilityRepository.findById(masterId)
+                .orElseThrow(() -> new RuntimeException("Availability not found with id " + masterId));
+        if (!master.isRecurringMaster()) {
+            throw new RuntimeException("Availability " + masterId + " is not a recurring event");
+        }
+
+        Availability occurrence = availabilityIndex.findOccurrence(master, originalStartTime)
+                .orElseThrow(() -> new RuntimeException("Recurring event " + masterId + " has no occurrence at " + originalStartTime));
+
+        Availability override = availabilityRepository
+                .findFirstByRecurrenceParentIdAndOriginalStartTime(masterId, originalStartTime)
+                .orElseGet(() -> Availability.builder()
+                        .user(master.getUser())
+                        .startTime(occurrence.getStartTime())
+                        .endTime(occurrence.getEndTime())
+                        .timezone(master.getTimezone())
+                        .title(master.getTitle())
+                        .description(master.getDescription())
+                        .location(master.getLocation())
+                        .isBusy(master.getIsBusy())
+                        .isAllDay(master.getIsAllDay())
+                        .reminderMinutes(master.getReminderMinutes())
+                        .source(AvailabilitySource.OVERRIDE)
+                        .recurrenceParentId(masterId)
+                        .originalStartTime(originalStartTime)
+                        .build());
+        boolean isNew = override.getId() == null;
+        boolean wasBusy = Boolean.TRUE.equals(override.getIsBusy());
+
+        if (startTime != null) override.setStartTime(startTime);
+        if (endTime != null) override.setEndTime(endTime);
+        if (title != null) override.setTitle(title);
+        if (description != null) override.setDescription(description);
+        if (location != null) override.setLocation(location);
+        if (isBusy != null) override.setIsBusy(isBusy);
+        if (isAllDay != null) override.setIsAllDay(isAllDay);
+        if (reminderMinutes != null) override.setReminderMinutes(reminderMinutes);
+
+        validateAvailability(override);
+
+        override.setChangeVersion(calendarVersions.next(master.getUserId()));
+        Availability savedOverride = availabilityRepository.save(override);
+        if (isNew) {
+            statsService.recordCreated(savedOverride);
+        } else {
+            statsService.recordUpdated(wasBusy, savedOverride);
+        }
+        availabilityIndex.put(savedOverride);
+        reminderScheduler.schedule(savedOverride);
+        // Reschedules the series so the replaced occurrence no longer fires
+        reminderScheduler.schedule(master);
+        System.out.println("Saved occurrence override: " + savedOverride);
+        return savedOverride;
+    }
+
     public boolean deleteAvailability(Long id){
         System.out.println("Deleting availability with id " + id);
-        if(availabilityRepository.existsById(id)){
-            availabilityRepository.deleteById(id);
+        Optional<Availability> availabilityOpt = availabilityRepository.findById(id);
+        if(availabilityOpt.isPresent()){
+            Availability availability = availabilityOpt.get();
+            Long userId = availability.getUserId();
+            List<Availability> removed = new ArrayList<>(List.of(availability));
+            if (availability.isRecurringMaster()) {
+                removed.addAll(availabilityRepository.findByRecurrenceParentIdIn(List.of(id)));
+                availabilityRepository.deleteByRecurrenceParentId(id);
+            }
+            availabilityRepository.delete(availability);
+            statsService.recordDeleted(userId, removed);
+            List<Long> removedIds = removed.stream().map(Availability::getId).toList();
+
+            long version = calendarVersions.next(userId);
+            tombstoneRepository.saveAll(removedIds.stream()
+                    .map(removedId -> AvailabilityTombstone.builder()
+                            .userId(userId)
+                            .availabilityId(removedId)
+                            .changeVersion(version)
+                            .build())
+                    .toList());
+
+            availabilityIndex.remove(userId, id);
+            reminderScheduler.cancel(removedIds);
             System.out.println("Deleted availability with id " + id);
             return true;
         }else{
@@ -118,115 +385,307 @@ public class AvailabilityService {
     }
 
     public List<Availability> getCalendarView(Long userId, LocalDateTime start, LocalDateTime end) {
+        return getCalendarView(userId, start, end, false);
+    }
+
+    /**
+     * With {@code resolved}, overlapping events are flattened into a non-overlapping timeline
+     * where the highest-priority source wins each segment.
+     */
+    public List<Availability> getCalendarView(Long userId, LocalDateTime start, LocalDateTime end, boolean resolved) {
         System.out.println("Getting calendar view for user " + userId + " from " + start + " to " + end);
 
-        List<Availability> availability = availabilityRepository.findByUserIdAndDateRangeOverlap(userId, start, end);
+        List<Availability> availability = availabilityIndex.findOverlapping(userId, start, end, true);
+        if (availabilityArchive.covers(start)) {
+            List<Availability> archived = availabilityArchive.findOverlapping(userId, start, end);
+            if (!archived.isEmpty()) {
+                availability = new ArrayList<>(availability);
+                availability.addAll(archived);
+                availability.sort(Comparator.comparingLong(FreeBusyCalculator::startEpoch));
+            }
+        }
         System.out.println("Found " + availability.size() + " stored availability records");
 
-        return availability;
+        return resolved ? CalendarConflictResolver.resolve(availability) : availability;
+    }
+
+    public List<CalendarSlotDto> getCompleteCalendarView(Long userId, LocalDateTime start, LocalDateTime end) {
+        return getCompleteCalendarView(userId, start, end, false);
     }
 
-    public List<Availability> getCompleteCalendarView(Long userId, LocalDateTime start, LocalDateTime end) {
+    public List<CalendarSlotDto> getCompleteCalendarView(Long userId, LocalDateTime start, LocalDateTime end, boolean resolved) {
         System.out.println("Getting complete calendar view with implied free time for user " + userId);
 
-        List<Availability> storedEvents = availabilityRepository.findByUserIdAndDateRangeOverlap(userId, start, end);
+        List<Availability> storedEvents = getCalendarView(userId, start, end, resolved);
         System.out.println("Found " + storedEvents.size() + " stored events");
 
-        List<Availability> impliedFreeTime = calculateImpliedFreeTime(userId, start, end, storedEvents);
-        System.out.println("Calculated " + impliedFreeTime.size() + " implied free time slots");
-
-        List<Availability> completeView = new ArrayList<>();
-        completeView.addAll(storedEvents);
-        completeView.addAll(impliedFreeTime);
-
-        completeView.sort(Comparator.comparing(Availability::getStartTime));
+        long[] freeSlots = calculateImpliedFreeTime(start, end, storedEvents);
+        System.out.println("Calculated " + freeSlots.length / 2 + " implied free time slots");
+
+        // Both inputs are already ordered by start time, so a linear merge keeps the view sorted.
+        List<CalendarSlotDto> completeView = new ArrayList<>(storedEvents.size() + freeSlots.length / 2);
+        int eventIndex = 0;
+        int freeIndex = 0;
+        while (eventIndex < storedEvents.size() || freeIndex < freeSlots.length) {
+            boolean takeEvent = freeIndex >= freeSlots.length
+                    || (eventIndex < storedEvents.size()
+                        && FreeBusyCalculator.startEpoch(storedEvents.get(eventIndex)) <= freeSlots[freeIndex]);
+            if (takeEvent) {
+                completeView.add(CalendarSlotDto.fromAvailability(storedEvents.get(eventIndex++)));
+            } else {
+                completeView.add(CalendarSlotDto.impliedFree(
+                        FreeBusyCalculator.fromEpoch(freeSlots[freeIndex]),
+                        FreeBusyCalculator.fromEpoch(freeSlots[freeIndex + 1])));
+                freeIndex += 2;
+            }
+        }
 
         System.out.println("Complete calendar view: " + completeView.size() + " total slots");
         return completeView;
     }
 
     public List<Availability> getMonthView(Long userId, int year, int month){
+        return getMonthView(userId, year, month, false);
+    }
+
+    public List<Availability> getMonthView(Long userId, int year, int month, boolean resolved){
         System.out.println("Getting month view for user " + userId + " - " + year + "/" + month);
 
         LocalDateTime monthStart = LocalDateTime.of(year, month, 1, 0, 0);
         LocalDateTime monthEnd = monthStart.plusMonths(1).minusSeconds(1);
-        return getCalendarView(userId, monthStart, monthEnd);
+        return getCalendarView(userId, monthStart, monthEnd, resolved);
     }
 
-    public List<Availability> getTodayView(Long userId) {
-        System.out.println("Getting today's availability for user " + userId);
+    /**
+     * Per-day busy bitmaps for [from, to], served from the availability index without
+     * touching event details.
+     */
+    public List<DayBitmapDto> getDayBitmaps(Long userId, LocalDate from, LocalDate to) {
+        System.out.println("Getting day bitmaps for user " + userId + " from " + from + " to " + to);
 
-        LocalDate today = LocalDate.now();
-        LocalDateTime dayStart = today.atStartOfDay();
-        LocalDateTime dayEnd = today.atTime(23, 59, 59);
+        if (from.isAfter(to)) {
+            throw new RuntimeException("From date must not be after to date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_BITMAP_DAYS) {
+            throw new RuntimeException("Bitmap range cannot exceed " + MAX_BITMAP_DAYS + " days");
+        }
 
-        return getCalendarView(userId, dayStart, dayEnd);
+        long[] bits = availabilityIndex.getDayBitmaps(userId, from, to);
+        LocalDateTime rangeStart = from.atStartOfDay();
+        if (availabilityArchive.covers(rangeStart)) {
+            long firstDayStart = FreeBusyCalculator.toEpoch(rangeStart);
+            for (Availability archived : availabilityArchive.findOverlapping(userId, rangeStart, to.plusDays(1).atStartOfDay())) {
+                if (Boolean.TRUE.equals(archived.getIsBusy())) {
+                    DayBitmap.scatter(bits, firstDayStart,
+                            FreeBusyCalculator.startEpoch(archived), FreeBusyCalculator.endEpoch(archived));
+                }
+            }
+        }
+        List<DayBitmapDto> days = new ArrayList<>(bits.length / 2);
+        for (int i = 0; i < bits.length / 2; i++) {
+            days.add(DayBitmapDto.builder()
+                    .date(from.plusDays(i))
+                    .busy(DayBitmap.toHex(bits[i * 2], bits[i * 2 + 1]))
+                    .build());
+        }
+        return days;
     }
 
-    public List<Availability> getAllUserAvailability(Long userId) {
-        System.out.println("Getting all availability for user " + userId);
+    /**
+     * The first free gap of at least {@code minDurationMinutes} starting at or after
+     * {@code after} (UTC, default now). Busy time is read from the index a week at a time and
+     * the walk stops at the first busy interval that ends a long enough gap. When nothing is
+     * booked before the 90-day horizon, the gap is reported up to the horizon.
+     */
+    public Optional<FreeSlotDto> findNextFreeSlot(Long userId, LocalDateTime after, Integer minDurationMinutes) {
+        System.out.println("Finding next free slot for user " + userId + " after " + after);
+
+        long minDuration = nextFreeDuration(minDurationMinutes);
+        long from = FreeBusyCalculator.toEpoch(after != null ? after : FreeBusyCalculator.nowUtc());
+        long horizon = from + SEARCH_HORIZON_SECONDS;
+
+        long freeFrom = from;
+        for (long windowStart = from; windowStart < horizon; windowStart += SEARCH_CHUNK_SECONDS) {
+            long windowEnd = Math.min(windowStart + SEARCH_CHUNK_SECONDS, horizon);
+            long[] busy = FreeBusyCalculator.merge(FreeBusyCalculator.encode(
+                    availabilityIndex.findOverlapping(userId, FreeBusyCalculator.fromEpoch(windowStart),
+                            FreeBusyCalculator.fromEpoch(windowEnd), false),
+                    windowStart, windowEnd, true));
+            // Clipped pieces of one event meet at the window boundary, so freeFrom carries over
+            for (int i = 0; i < busy.length; i += 2) {
+                if (busy[i] - freeFrom >= minDuration) {
+                    return Optional.of(freeSlot(freeFrom, busy[i]));
+                }
+                freeFrom = Math.max(freeFrom, busy[i + 1]);
+            }
+        }
+        if (horizon - freeFrom >= minDuration) {
+            return Optional.of(freeSlot(freeFrom, horizon));
+        }
+        System.out.println("No free slot found for user " + userId + " within the search horizon");
+        return Optional.empty();
+    }
 
-        List<Availability> availability = availabilityRepository.findByUserIdOrderByStartTime(userId);
-        System.out.println("Found " + availability.size() + " availability records for user " + userId);
+    /** {@link #findNextFreeSlot} for several users; users with no free slot are left out. */
+    public Map<Long, FreeSlotDto> findNextFreeSlots(List<Long> userIds, LocalDateTime after, Integer minDurationMinutes) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new RuntimeException("At least one user is required");
+        }
+        if (userIds.size() > MAX_NEXT_FREE_USERS) {
+            throw new RuntimeException("Cannot search more than " + MAX_NEXT_FREE_USERS + " users at once");
+        }
+        LocalDateTime from = after != null ? after : FreeBusyCalculator.nowUtc();
 
-        return availability;
+        Map<Long, FreeSlotDto> slots = new LinkedHashMap<>();
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            findNextFreeSlot(userId, from, minDurationMinutes).ifPresent(slot -> slots.put(userId, slot));
+        }
+        return slots;
     }
 
-    private List<Availability> calculateImpliedFreeTime(Long userId, LocalDateTime start, LocalDateTime end, List<Availability> storedEvents) {
-        System.out.println("Calculating implied free time between " + storedEvents.size() + " events");
+    /**
+     * The busy event in progress at {@code after} (UTC, default now), or else the first one
+     * starting after it, within the 90-day horizon.
+     */
+    public Optional<CalendarSlotDto> findNextBusySlot(Long userId, LocalDateTime after) {
+        System.out.println("Finding next busy slot for user " + userId + " after " + after);
+
+        long from = FreeBusyCalculator.toEpoch(after != null ? after : FreeBusyCalculator.nowUtc());
+        long horizon = from + SEARCH_HORIZON_SECONDS;
+        for (long windowStart = from; windowStart < horizon; windowStart += SEARCH_CHUNK_SECONDS) {
+            long windowEnd = Math.min(windowStart + SEARCH_CHUNK_SECONDS, horizon);
+            Availability first = null;
+            for (Availability event : availabilityIndex.findOverlapping(userId, FreeBusyCalculator.fromEpoch(windowStart),
+                    FreeBusyCalculator.fromEpoch(windowEnd), false)) {
+                if (Boolean.TRUE.equals(event.getIsBusy())
+                        && (first == null || FreeBusyCalculator.startEpoch(event) < FreeBusyCalculator.startEpoch(first))) {
+                    first = event;
+                }
+            }
+            if (first != null) {
+                return Optional.of(CalendarSlotDto.fromAvailability(first));
+            }
+        }
+        return Optional.empty();
+    }
 
-        User user = userService.findUserById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id " + userId));
+    private static long nextFreeDuration(Integer minDurationMinutes) {
+        int minutes = minDurationMinutes != null ? minDurationMinutes : DEFAULT_NEXT_FREE_MINUTES;
+        if (minutes <= 0) {
+            throw new RuntimeException("Minimum duration must be positive");
+        }
+        if (minutes * 60L > SEARCH_HORIZON_SECONDS) {
+            throw new RuntimeException("Minimum duration cannot exceed the search horizon");
+        }
+        return minutes * 60L;
+    }
 
-        List<Availability> freeSlots = new ArrayList<>();
+    private static FreeSlotDto freeSlot(long start, long end) {
+        return FreeSlotDto.builder()
+                .startTime(FreeBusyCalculator.fromEpoch(start))
+                .endTime(FreeBusyCalculator.fromEpoch(end))
+                .durationMinutes((end - start) / 60)
+                .build();
+    }
 
-        storedEvents.sort(Comparator.comparing(Availability::getStartTime));
+    public String getCalendarETag(Long userId) {
+        return calendarVersions.etag(userId);
+    }
 
-        LocalDateTime currentTime = start;
+    public String getTodayETag(Long userId) {
+        return calendarVersions.etag(userId, FreeBusyCalculator.nowUtc().toLocalDate());
+    }
 
-        for(Availability event : storedEvents){
-            if(currentTime.isBefore(event.getStartTime())){
-                Availability freeSlot = createImpliedFreeSlot(user, currentTime, event.getStartTime());
-                freeSlots.add(freeSlot);
-                System.out.println("Created free slot: " + currentTime + " to " + event.getStartTime());
-            }
-            if (event.getEndTime().isAfter(currentTime)) {
-                currentTime = event.getEndTime();
-            }
+    /**
+     * Rows created, updated or deleted after calendar version {@code since}. The returned
+     * version is the one to pass as {@code since} next time. When more than
+     * {@value #MAX_DELTA_CHANGES} rows changed, or the client is ahead of the server, only
+     * {@code resyncRequired} is set and the client should reload its ranges.
+     */
+    @Transactional(readOnly = true)
+    public CalendarChangesDto getChanges(Long userId, long since) {
+        System.out.println("Getting calendar changes for user " + userId + " since version " + since);
+
+        // Read the version first so the rows below are at least as new as what is reported
+        long version = calendarVersions.current(userId);
+        CalendarChangesDto.CalendarChangesDtoBuilder changes = CalendarChangesDto.builder()
+                .userId(userId)
+                .since(since)
+                .version(version);
+        if (since > version) {
+            return changes.resyncRequired(true).changed(List.of()).deletedIds(List.of()).build();
+        }
+        if (since == version) {
+            return changes.resyncRequired(false).changed(List.of()).deletedIds(List.of()).build();
         }
-        if(currentTime.isBefore(end)){
-            Availability freeSlot = createImpliedFreeSlot(user, currentTime, end);
-            freeSlots.add(freeSlot);
-            System.out.println("Created final free slot: " + currentTime + " to " + end);
+
+        PageRequest limit = PageRequest.of(0, MAX_DELTA_CHANGES + 1);
+        List<Availability> changed = availabilityRepository
+                .findByUserIdAndChangeVersionBetweenOrderByChangeVersionAscIdAsc(userId, since + 1, version, limit);
+        List<Long> deletedIds = tombstoneRepository.findDeletedIdsSince(userId, since, version, limit);
+        if (changed.size() + deletedIds.size() > MAX_DELTA_CHANGES) {
+            System.out.println("Too many changes for user " + userId + " since version " + since + ", resync required");
+            return changes.resyncRequired(true).changed(List.of()).deletedIds(List.of()).build();
         }
-        System.out.println("Calculated " + freeSlots.size() + " implied free time slots");
-        return freeSlots;
+
+        System.out.println("Found " + changed.size() + " changed and " + deletedIds.size() + " deleted records");
+        return changes.resyncRequired(false).changed(changed).deletedIds(deletedIds).build();
     }
 
-    private Availability createImpliedFreeSlot(User user, LocalDateTime start, LocalDateTime end) {
-        return Availability.builder()
-                .user(user)
-                .startTime(start)
-                .endTime(end)
-                .title("Available")
-                .description("Implied free time")
-                .isBusy(false)
-                .isAllDay(false)
-                .source(AvailabilitySource.MANUAL)
-                .reminderMinutes(null)
-                .build();
+    public List<Availability> getTodayView(Long userId) {
+        return getTodayView(userId, false);
     }
 
-    private List<Availability> checkConflicts(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+    public List<Availability> getTodayView(Long userId, boolean resolved) {
+        System.out.println("Getting today's availability for user " + userId);
+
+        LocalDate today = FreeBusyCalculator.nowUtc().toLocalDate();
+        LocalDateTime dayStart = today.atStartOfDay();
+        LocalDateTime dayEnd = today.atTime(23, 59, 59);
+
+        return getCalendarView(userId, dayStart, dayEnd, resolved);
+    }
+
+    public List<Availability> getAllUserAvailability(Long userId) {
+        System.out.println("Getting all availability for user " + userId);
+
+        List<Availability> availability = new ArrayList<>(availabilityArchive.findAll(userId));
+        availability.addAll(availabilityRepository.findByUserIdOrderByStartTime(userId));
+        availability.sort(Comparator.comparing(Availability::getStartTime));
+        System.out.println("Found " + availability.size() + " availability records for user " + userId);
+
+        return availability;
+    }
+
+    /**
+     * Gaps between the stored events inside the window, as start/end epoch-second pairs.
+     * Any stored event, busy or not, counts as occupied time.
+     */
+    private long[] calculateImpliedFreeTime(LocalDateTime start, LocalDateTime end, List<Availability> storedEvents) {
+        long windowStart = FreeBusyCalculator.toEpoch(start);
+        long windowEnd = FreeBusyCalculator.toEpoch(end);
+
+        long[] occupied = FreeBusyCalculator.encode(storedEvents, windowStart, windowEnd, false);
+        return FreeBusyCalculator.gaps(FreeBusyCalculator.merge(occupied), windowStart, windowEnd, 0);
+    }
+
+    public List<ConflictSlotDto> checkConflicts(Long userId, LocalDateTime startTime, LocalDateTime endTime, Long excludeId) {
         System.out.println("Checking conflicts for user " + userId + " between " + startTime + " and " + endTime);
-        List<Availability> overlapping = availabilityRepository.findOverlappingSlots(userId, startTime, endTime);
-        List<Availability> conflicts = overlapping.stream()
-                .filter(Availability::getIsBusy)
-                .toList();
+        if (!startTime.isBefore(endTime)) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        List<ConflictSlotDto> conflicts = conflictChecker.findConflicts(userId, startTime, endTime, excludeId);
         System.out.println("Found " + conflicts.size() + " potential conflicts");
         return conflicts;
     }
 
+    public boolean hasConflicts(Long userId, LocalDateTime startTime, LocalDateTime endTime, Long excludeId) {
+        if (!startTime.isBefore(endTime)) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        return conflictChecker.hasConflict(userId, startTime, endTime, excludeId);
+    }
+
     public void validateAvailability(Availability availability) {
         System.out.println("Validating availability: " + availability.getTitle());
 
@@ -238,7 +697,7 @@ public class AvailabilityService {
             throw new RuntimeException("All day events must be full days");
         }
 
-        if (availability.getStartTime().isBefore(LocalDateTime.now())) {
+        if (FreeBusyCalculator.startEpoch(availability) < FreeBusyCalculator.toEpoch(FreeBusyCalculator.nowUtc())) {
             throw new RuntimeException("Cannot create events in the past");
         }
 
@@ -252,8 +711,8 @@ public class AvailabilityService {
     public List<Availability> getUpcomingEvents(Long userId) {
         System.out.println("Getting upcoming events for user " + userId);
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Availability> upcoming = availabilityRepository.findByUserIdAndStartTimeAfterOrderByStartTime(userId, now);
+        long now = FreeBusyCalculator.toEpoch(FreeBusyCalculator.nowUtc());
+        List<Availability> upcoming = availabilityRepository.findByUserIdAndStartEpochGreaterThanOrderByStartEpoch(userId, now);
 
         System.out.println("Found " + upcoming.size() + " upcoming events");
         return upcoming;
@@ -262,21 +721,17 @@ public class AvailabilityService {
     public List<Availability> getCurrentEvents(Long userId) {
         System.out.println("Getting current events for user " + userId);
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Availability> current = availabilityRepository.findCurrentEvents(userId, now);
+        LocalDateTime now = FreeBusyCalculator.nowUtc();
+        List<Availability> current = availabilityIndex.findOverlapping(userId, now, now, true);
 
         System.out.println("Found " + current.size() + " current events");
         return current;
     }
 
-    public Map<String, Long> getAvailabilityStatistics(Long userId) {
+    public AvailabilityStatsDto getAvailabilityStatistics(Long userId) {
         System.out.println("Getting availability statistics for user " + userId);
 
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("totalEvents", availabilityRepository.countByUserId(userId));
-        stats.put("freeTimeSlots", availabilityRepository.countByUserIdAndIsBusyFalse(userId));
-        stats.put("busyTimeSlots", availabilityRepository.countByUserIdAndIsBusyTrue(userId));
-
+        AvailabilityStatsDto stats = statsService.getStatistics(userId);
         System.out.println("Availability statistics: " + stats);
         return stats;
     }
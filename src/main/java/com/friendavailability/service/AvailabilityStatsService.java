@@ -0,0 +1,241 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.availability.AvailabilityStatsDto;
+import com.friendavailability.model.Availability;
+import com.friendavailability.model.UserAvailabilityStats;
+import com.friendavailability.repository.AvailabilityRepository;
+import com.friendavailability.repository.UserAvailabilityStatsRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Availability statistics without COUNT queries.
+ *
+ * Event counters live in {@code user_availability_stats} and are adjusted in the same
+ * transaction as the write, so they commit or roll back together with it. A user without a
+ * counter row gets one seeded from COUNTs on their first write, taken after that write, so a
+ * row never starts from a lone delta. Existing users are also seeded while the context starts;
+ * if that fails, startup fails. The
+ * time-dependent figures (busy minutes this week, next free slot, longest free block) cannot
+ * be kept as counters; they are computed from the availability index and cached per user
+ * until the calendar version changes or the entry gets older than the TTL.
+ */
+@Service
+public class AvailabilityStatsService {
+
+    private static final String INCREMENT_SQL = "UPDATE user_availability_stats SET " +
+            "total_events = total_events + ?, busy_events = busy_events + ?, updated_at = ? WHERE user_id = ?";
+    private static final String INSERT_SQL = "INSERT INTO user_availability_stats " +
+            "(user_id, total_events, busy_events, updated_at) VALUES (?, ?, ?, ?)";
+    private static final String COUNT_ARCHIVED_SQL = "SELECT COUNT(*), COALESCE(SUM(CASE WHEN is_busy THEN 1 ELSE 0 END), 0) " +
+            "FROM availability_archive WHERE user_id = ?";
+
+    // Seeds counters for users that had events before the stats table existed, so reads find
+    // them without waiting for a write. Runs during startup before requests are served.
+    private static final String BACKFILL_SQL = "INSERT INTO user_availability_stats " +
+            "(user_id, total_events, busy_events, updated_at) " +
+            "SELECT e.user_id, COUNT(*), SUM(CASE WHEN e.is_busy THEN 1 ELSE 0 END), ? FROM (" +
+            "SELECT user_id, is_busy FROM availabilities UNION ALL SELECT user_id, is_busy FROM availability_archive) e " +
+            "WHERE NOT EXISTS (SELECT 1 FROM user_availability_stats s WHERE s.user_id = e.user_id) " +
+            "GROUP BY e.user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserAvailabilityStatsRepository statsRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final CalendarVersionTracker calendarVersions;
+
+    private final Map<Long, TimeStats> timeStats = new ConcurrentHashMap<>();
+
+    @Value("${app.availability.stats.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${app.availability.stats.free-horizon-days:7}")
+    private long freeHorizonDays;
+
+    public AvailabilityStatsService(JdbcTemplate jdbcTemplate, UserAvailabilityStatsRepository statsRepository,
+                                    AvailabilityRepository availabilityRepository,
+                                    AvailabilityIndex availabilityIndex, CalendarVersionTracker calendarVersions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsRepository = statsRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.calendarVersions = calendarVersions;
+        System.out.println("AvailabilityStatsService created");
+    }
+
+    public void recordCreated(Availability availability) {
+        apply(availability.getUserId(), 1, isBusy(availability) ? 1 : 0);
+    }
+
+    public void recordCreated(Long userId, Collection<Availability> rows) {
+        long busy = rows.stream().filter(AvailabilityStatsService::isBusy).count();
+        apply(userId, rows.size(), busy);
+    }
+
+    /** Only the busy flag affects the counters, so callers pass its value before the update. */
+    public void recordUpdated(boolean wasBusy, Availability availability) {
+        long delta = (isBusy(availability) ? 1 : 0) - (wasBusy ? 1 : 0);
+        if (delta != 0) {
+            apply(availability.getUserId(), 0, delta);
+        }
+    }
+
+    public void recordDeleted(Long userId, Collection<Availability> rows) {
+        long busy = rows.stream().filter(AvailabilityStatsService::isBusy).count();
+        apply(userId, -rows.size(), -busy);
+    }
+
+    private void apply(Long userId, long totalDelta, long busyDelta) {
+        if (totalDelta == 0 && busyDelta == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (jdbcTemplate.update(INCREMENT_SQL, totalDelta, busyDelta, now, userId) == 0) {
+            // The counts already include this write, so the seeded row needs no delta
+            long[] counts = countEvents(userId);
+            try {
+                jdbcTemplate.update(INSERT_SQL, userId, counts[0], counts[1], now);
+            } catch (DuplicateKeyException e) {
+                // A concurrent first write seeded the row without seeing this uncommitted write
+                jdbcTemplate.update(INCREMENT_SQL, totalDelta, busyDelta, now, userId);
+            }
+        }
+    }
+
+    /** [total, busy] over live and archived rows, including writes still pending in this transaction. */
+    private long[] countEvents(Long userId) {
+        Object[] live = availabilityRepository.countEventsByUserId(userId).get(0);
+        long[] counts = jdbcTemplate.queryForObject(COUNT_ARCHIVED_SQL,
+                (row, i) -> new long[]{row.getLong(1), row.getLong(2)}, userId);
+        counts[0] += ((Number) live[0]).longValue();
+        counts[1] += ((Number) live[1]).longValue();
+        return counts;
+    }
+
+    public AvailabilityStatsDto getStatistics(Long userId) {
+        UserAvailabilityStats counters = statsRepository.findById(userId).orElse(null);
+        TimeStats time = timeStats(userId);
+
+        return AvailabilityStatsDto.builder()
+                .userId(userId)
+                .totalEvents(counters != null ? counters.getTotalEvents() : 0)
+                .freeTimeSlots(counters != null ? counters.getFreeEvents() : 0)
+                .busyTimeSlots(counters != null ? counters.getBusyEvents() : 0)
+                .busyMinutesThisWeek(time.busyMinutesThisWeek)
+                .nextFreeSlotStart(time.nextFreeStart)
+                .nextFreeSlotEnd(time.nextFreeEnd)
+                .longestFreeBlockStart(time.longestFreeStart)
+                .longestFreeBlockEnd(time.longestFreeEnd)
+                .longestFreeBlockMinutes(time.longestFreeMinutes())
+                .build();
+    }
+
+    private TimeStats timeStats(Long userId) {
+        long version = calendarVersions.current(userId);
+        long now = System.currentTimeMillis();
+        TimeStats cached = timeStats.get(userId);
+        if (cached != null && cached.version == version && now - cached.computedAt < ttlSeconds * 1000) {
+            return cached;
+        }
+        TimeStats computed = computeTimeStats(userId, version, now);
+        timeStats.put(userId, computed);
+        return computed;
+    }
+
+    private TimeStats computeTimeStats(Long userId, long version, long computedAt) {
+        LocalDateTime now = FreeBusyCalculator.nowUtc();
+        LocalDateTime weekStart = now.toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        LocalDateTime weekEnd = weekStart.plusWeeks(1);
+        LocalDateTime horizonEnd = now.plusDays(freeHorizonDays);
+
+        // One index lookup covers both the week and the free-time horizon
+        LocalDateTime lookupEnd = horizonEnd.isAfter(weekEnd) ? horizonEnd : weekEnd;
+        List<Availability> events = availabilityIndex.findOverlapping(userId, weekStart, lookupEnd, false);
+
+        long weekFrom = FreeBusyCalculator.toEpoch(weekStart);
+        long weekTo = FreeBusyCalculator.toEpoch(weekEnd);
+        long[] busyThisWeek = FreeBusyCalculator.merge(FreeBusyCalculator.encode(events, weekFrom, weekTo, true));
+        long busySeconds = 0;
+        for (int i = 0; i < busyThisWeek.length; i += 2) {
+            busySeconds += busyThisWeek[i + 1] - busyThisWeek[i];
+        }
+
+        long horizonFrom = FreeBusyCalculator.toEpoch(now);
+        long horizonTo = FreeBusyCalculator.toEpoch(horizonEnd);
+        long[] busy = FreeBusyCalculator.merge(FreeBusyCalculator.encode(events, horizonFrom, horizonTo, true));
+        long[] free = FreeBusyCalculator.gaps(busy, horizonFrom, horizonTo, 0);
+
+        TimeStats stats = new TimeStats(version, computedAt, busySeconds / 60);
+        if (free.length > 0) {
+            stats.nextFreeStart = FreeBusyCalculator.fromEpoch(free[0]);
+            stats.nextFreeEnd = FreeBusyCalculator.fromEpoch(free[1]);
+            int longest = 0;
+            for (int i = 2; i < free.length; i += 2) {
+                if (free[i + 1] - free[i] > free[longest + 1] - free[longest]) {
+                    longest = i;
+                }
+            }
+            stats.longestFreeStart = FreeBusyCalculator.fromEpoch(free[longest]);
+            stats.longestFreeEnd = FreeBusyCalculator.fromEpoch(free[longest + 1]);
+        }
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.index.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - ttlSeconds * 1000;
+        timeStats.values().removeIf(stats -> stats.computedAt < cutoff);
+    }
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            int seeded = jdbcTemplate.update(BACKFILL_SQL, LocalDateTime.now());
+            if (seeded > 0) {
+                System.out.println("Seeded availability statistics for " + seeded + " users");
+            }
+        } catch (Exception e) {
+            System.err.println("Error seeding availability statistics: " + e.getMessage());
+            throw new RuntimeException("Failed to seed availability statistics", e);
+        }
+    }
+
+    private static boolean isBusy(Availability availability) {
+        return Boolean.TRUE.equals(availability.getIsBusy());
+    }
+
+    private static final class TimeStats {
+        final long version;
+        final long computedAt;
+        final long busyMinutesThisWeek;
+        LocalDateTime nextFreeStart;
+        LocalDateTime nextFreeEnd;
+        LocalDateTime longestFreeStart;
+        LocalDateTime longestFreeEnd;
+
+        TimeStats(long version, long computedAt, long busyMinutesThisWeek) {
+            this.version = version;
+            this.computedAt = computedAt;
+            this.busyMinutesThisWeek = busyMinutesThisWeek;
+        }
+
+        long longestFreeMinutes() {
+            return longestFreeStart == null ? 0
+                    : (FreeBusyCalculator.toEpoch(longestFreeEnd) - FreeBusyCalculator.toEpoch(longestFreeStart)) / 60;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+import com.friendavailability.model.AvailabilitySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flattens overlapping events from different sources into a single non-overlapping timeline.
+ *
+ * One sorted sweep over the start/end boundaries keeps the active events in a heap ordered by
+ * {@link AvailabilitySource#getPriority()}; whichever event is on top owns the time until the
+ * next boundary. Ties go to the event that started later (the more specific one), then to the
+ * higher id. Runs in O(n log n) on primitive arrays: boundaries are sorted as (time, boundary)
+ * pairs with {@link FreeBusyCalculator#sortPairs} and the heap holds event indexes.
+ */
+public final class CalendarConflictResolver {
+
+    private CalendarConflictResolver() {
+    }
+
+    public static List<Availability> resolve(List<Availability> events) {
+        List<Availability> valid = new ArrayList<>(events.size());
+        for (Availability event : events) {
+            if (event.isValidTimeRange()) {
+                valid.add(event);
+            }
+        }
+        if (valid.size() < 2) {
+            return valid;
+        }
+
+        // Boundaries are (time, (index << 1) | isEnd) pairs sorted by their time.
+        int count = valid.size();
+        long[] boundaries = new long[count * 4];
+        Heap active = new Heap(valid);
+        for (int i = 0; i < count; i++) {
+            boundaries[i * 4] = active.starts[i];
+            boundaries[i * 4 + 1] = i * 2L;
+            boundaries[i * 4 + 2] = FreeBusyCalculator.endEpoch(valid.get(i));
+            boundaries[i * 4 + 3] = i * 2L + 1;
+        }
+        FreeBusyCalculator.sortPairs(boundaries);
+
+        boolean[] ended = new boolean[count];
+        List<Availability> resolved = new ArrayList<>(count);
+
+        int winner = -1;
+        long segmentStart = 0;
+        int position = 0;
+        while (position < boundaries.length) {
+            long time = boundaries[position];
+
+            // Apply every boundary at this instant before deciding who owns the next segment.
+            while (position < boundaries.length && boundaries[position] == time) {
+                int boundary = (int) boundaries[position + 1];
+                position += 2;
+                int index = boundary >> 1;
+                if ((boundary & 1) == 0) {
+                    active.push(index);
+                } else {
+                    ended[index] = true;
+                }
+            }
+            while (active.size > 0 && ended[active.peek()]) {
+                active.pop();
+            }
+
+            int next = active.size == 0 ? -1 : active.peek();
+            if (next != winner) {
+                if (winner >= 0 && segmentStart < time) {
+                    resolved.add(clip(valid.get(winner), segmentStart, time));
+                }
+                winner = next;
+                segmentStart = time;
+            }
+        }
+        return resolved;
+    }
+
+    private static int priority(Availability event) {
+        return event.getSource() != null ? event.getSource().getPriority() : 0;
+    }
+
+    /**
+     * Binary max-heap of event indexes, ordered by priority, then start, then id, with the
+     * sort keys held in primitive arrays. Ended events are dropped lazily when they reach the top.
+     */
+    private static final class Heap {
+        final int[] priorities;
+        final long[] starts;
+        final long[] ids;
+        final int[] items;
+        int size;
+
+        Heap(List<Availability> events) {
+            int count = events.size();
+            priorities = new int[count];
+            starts = new long[count];
+            ids = new long[count];
+            items = new int[count];
+            for (int i = 0; i < count; i++) {
+                Availability event = events.get(i);
+                priorities[i] = priority(event);
+                starts[i] = FreeBusyCalculator.startEpoch(event);
+                ids[i] = event.getId() != null ? event.getId() : Long.MIN_VALUE;
+            }
+        }
+
+        int peek() {
+            return items[0];
+        }
+
+        void push(int index) {
+            int child = size++;
+            while (child > 0) {
+                int parent = (child - 1) / 2;
+                if (!beats(index, items[parent])) {
+                    break;
+                }
+                items[child] = items[parent];
+                child = parent;
+            }
+            items[child] = index;
+        }
+
+        void pop() {
+            int last = items[--size];
+            int parent = 0;
+            while (true) {
+                int child = parent * 2 + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && beats(items[child + 1], items[child])) {
+                    child++;
+                }
+                if (!beats(items[child], last)) {
+                    break;
+                }
+                items[parent] = items[child];
+                parent = child;
+            }
+            items[parent] = last;
+        }
+
+        private boolean beats(int a, int b) {
+            if (priorities[a] != priorities[b]) {
+                return priorities[a] > priorities[b];
+            }
+            if (starts[a] != starts[b]) {
+                return starts[a] > starts[b];
+            }
+            return ids[a] > ids[b];
+        }
+    }
+
+    private static Availability clip(Availability event, long start, long end) {
+        LocalDateTime clippedStart = FreeBusyCalculator.fromEpoch(start, event.getTimezone());
+        LocalDateTime clippedEnd = FreeBusyCalculator.fromEpoch(end, event.getTimezone());
+        if (clippedStart.equals(event.getStartTime()) && clippedEnd.equals(event.getEndTime())) {
+            return event;
+        }
+        return event.toBuilder()
+                .startTime(clippedStart)
+                .endTime(clippedEnd)
+                .build();
+    }
+}
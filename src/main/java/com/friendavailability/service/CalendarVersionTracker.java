@@ -0,0 +1,83 @@
+package com.friendavailability.service;
+
+import com.friendavailability.repository.AvailabilityRepository;
+import com.friendavailability.repository.AvailabilityTombstoneRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Per-user calendar version, bumped by every availability write and used for ETags and
+ * delta sync.
+ *
+ * Versions live in the {@code calendar_versions} table and are incremented inside the write's
+ * transaction. The row lock holds the next writer of the same user back until that transaction
+ * completes, so the committed value is always the version of the newest committed write: every
+ * instance reads the same {@link #current}, and a client that syncs up to it never skips a
+ * write that commits later. A rollback takes its version back with it.
+ *
+ * A user's counter row is created by their first write, seeded from the highest version stored
+ * for them; until then that stored maximum is the current version.
+ */
+@Component
+public class CalendarVersionTracker {
+
+    private static final String SELECT_SQL = "SELECT version FROM calendar_versions WHERE user_id = ?";
+    private static final String INCREMENT_SQL = "UPDATE calendar_versions SET version = version + 1 WHERE user_id = ?";
+    private static final String INSERT_SQL = "INSERT INTO calendar_versions (user_id, version) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityTombstoneRepository tombstoneRepository;
+
+    public CalendarVersionTracker(JdbcTemplate jdbcTemplate, AvailabilityRepository availabilityRepository,
+                                  AvailabilityTombstoneRepository tombstoneRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.availabilityRepository = availabilityRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        System.out.println("CalendarVersionTracker created");
+    }
+
+    /** Version of the user's newest committed write. */
+    public long current(Long userId) {
+        Long stored = read(userId);
+        return stored != null ? stored : seed(userId);
+    }
+
+    /**
+     * Allocates the version for a write in the current transaction; other writes of the same
+     * user wait for it to complete. Must be called inside the write's transaction.
+     */
+    public long next(Long userId) {
+        if (jdbcTemplate.update(INCREMENT_SQL, userId) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, userId, seed(userId) + 1);
+            } catch (DuplicateKeyException e) {
+                // A concurrent first write created the row
+                jdbcTemplate.update(INCREMENT_SQL, userId);
+            }
+        }
+        return read(userId);
+    }
+
+    public String etag(Long userId) {
+        return "\"" + userId + "-" + current(userId) + "\"";
+    }
+
+    /** ETag for responses that also depend on something other than the stored rows, such as the date. */
+    public String etag(Long userId, Object qualifier) {
+        return "\"" + userId + "-" + current(userId) + "-" + qualifier + "\"";
+    }
+
+    private Long read(Long userId) {
+        List<Long> rows = jdbcTemplate.queryForList(SELECT_SQL, Long.class, userId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private long seed(Long userId) {
+        return Math.max(availabilityRepository.findMaxChangeVersion(userId),
+                tombstoneRepository.findMaxChangeVersion(userId));
+    }
+}
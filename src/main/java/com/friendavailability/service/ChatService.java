@@ -3,13 +3,15 @@ package com.friendavailability.service;
 import com.friendavailability.model.*;
 import com.friendavailability.repository.*;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
 
 @Service
 @Transactional
@@ -20,41 +22,98 @@ public class ChatService {
     private final ChatParticipantRepository chatParticipantRepository;
     private final FriendRepository friendRepository;
     private final UserRepository userRepository;
+    private final SnowflakeIdGenerator idGenerator;
+    private final RoomMembershipCache membershipCache;
+    private final RoomActivityTracker roomActivity;
 
     public ChatService(ChatRoomRepository chatRoomRepository,
             MessageRepository messageRepository, ChatParticipantRepository chatParticipantRepository,
-            FriendRepository friendRepository, UserRepository userRepository) {
+            FriendRepository friendRepository, UserRepository userRepository, SnowflakeIdGenerator idGenerator,
+            RoomMembershipCache membershipCache, RoomActivityTracker roomActivity) {
         this.chatParticipantRepository = chatParticipantRepository;
         this.messageRepository = messageRepository;
         this.chatRoomRepository = chatRoomRepository;
         this.friendRepository = friendRepository;
         this.userRepository = userRepository;
+        this.idGenerator = idGenerator;
+        this.membershipCache = membershipCache;
+        this.roomActivity = roomActivity;
     }
 
+    // Read-only so that showing unflushed activity on the loaded rooms is never written back
+    @Transactional(readOnly = true)
     public Page<ChatRoom> getUserChatRooms(Long userId, int page, int size) {
         validateUserExists(userId);
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<ChatRoom> chatRooms = chatRoomRepository.findChatRoomsForUser(userId, pageable);
+        // Pending rooms were just messaged, so their members are normally cached
+        if (!roomActivity.hasPending(roomId -> membershipCache.mayBeActive(userId, roomId))) {
+            return chatRoomRepository.findChatRoomsForUser(userId, pageable);
+        }
+
+        // Order by id and timestamp only, then load just the rooms on the requested page
+        List<Object[]> activity = new ArrayList<>(chatRoomRepository.findChatRoomActivityForUser(userId));
+        activity.forEach(row -> row[1] = roomActivity.lastActivity((Long) row[0], (LocalDateTime) row[1]));
+        activity.sort(Comparator.comparing((Object[] row) -> (LocalDateTime) row[1]).reversed());
+
+        int from = (int) Math.min(pageable.getOffset(), activity.size());
+        int to = Math.min(from + size, activity.size());
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (Object[] row : activity.subList(from, to)) {
+            pageIds.add((Long) row[0]);
+        }
 
-        return chatRooms;
+        Map<Long, ChatRoom> loaded = new HashMap<>();
+        chatRoomRepository.findAllById(pageIds).forEach(room -> loaded.put(room.getId(), room));
+        List<ChatRoom> content = new ArrayList<>(pageIds.size());
+        for (Long roomId : pageIds) {
+            ChatRoom room = loaded.get(roomId);
+            if (room != null) {
+                content.add(withLastActivity(room));
+            }
+        }
+        return new PageImpl<>(content, pageable, activity.size());
     }
 
+    @Transactional(readOnly = true)
     public List<ChatRoom> getUserChatRooms(Long userId) {
         validateUserExists(userId);
-        return chatRoomRepository.findChatRoomsForUser(userId);
+        List<ChatRoom> chatRooms = chatRoomRepository.findChatRoomsForUser(userId);
+        Set<Long> roomIds = new HashSet<>();
+        chatRooms.forEach(room -> roomIds.add(room.getId()));
+        if (!roomActivity.hasPending(roomIds::contains)) {
+            return chatRooms;
+        }
+        List<ChatRoom> ordered = new ArrayList<>(chatRooms.size());
+        chatRooms.forEach(room -> ordered.add(withLastActivity(room)));
+        ordered.sort(Comparator.comparing(ChatRoom::getUpdatedAt).reversed());
+        return ordered;
+    }
+
+    private ChatRoom withLastActivity(ChatRoom room) {
+        room.setUpdatedAt(roomActivity.lastActivity(room.getId(), room.getUpdatedAt()));
+        return room;
     }
 
     public ChatRoom getChatRoom(Long roomId, Long userId) {
         ChatRoom chatRoom = chatRoomRepository.findById(roomId)
                 .orElseThrow(() -> new RuntimeException("Chatroom not found with id: " + roomId));
-        if (!chatParticipantRepository.isUserActiveInRoom(userId, roomId)) {
+        if (!membershipCache.isActive(userId, roomId)) {
             throw new RuntimeException("User is not authorised to access this chat room");
         }
         return chatRoom;
 
     }
 
+    /**
+     * Membership check for callers that do not need the room itself (typing, connects);
+     * served from the membership cache without touching the database, or opening a transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void requireActiveMember(Long roomId, Long userId) {
+        membershipCache.requireActive(userId, roomId);
+    }
+
     public ChatRoom getOrCreatePrivateChat(Long userId1, Long userId2) {
         if (userId1.equals(userId2)) {
             throw new RuntimeException("Cannot create a room with yourself");
@@ -140,12 +199,12 @@ public class ChatService {
     }
 
     public void addUserToGroupChat(Long roomId, Long userId, Long requestingUserId) {
-        if (!chatParticipantRepository.isUserAdminInRoom(requestingUserId, roomId)) {
+        if (!membershipCache.isAdmin(requestingUserId, roomId)) {
             throw new RuntimeException("Only admins can add users to the group");
         }
         validateUserExists(userId);
 
-        if (chatParticipantRepository.isUserActiveInRoom(userId, roomId)) {
+        if (membershipCache.isActive(userId, roomId)) {
             throw new RuntimeException("User already exists in the chat room");
         }
 
@@ -172,7 +231,7 @@ public class ChatService {
     }
 
     public List<ChatParticipant> getChatParticipants(Long roomId, Long requestingId) {
-        if (!chatParticipantRepository.isUserActiveInRoom(requestingId, roomId)) {
+        if (!membershipCache.isActive(requestingId, roomId)) {
             throw new RuntimeException("User not authorised to view pariticapnts");
         }
 
@@ -181,13 +240,14 @@ public class ChatService {
 
     public void removeUsersFromChat(Long roomId, Long userId, Long requestingUserId) {
         boolean isSelfRemoval = userId.equals(requestingUserId);
-        boolean isAdmin = chatParticipantRepository.isUserAdminInRoom(requestingUserId, roomId);
+        boolean isAdmin = membershipCache.isAdmin(requestingUserId, roomId);
 
         if (!isSelfRemoval && !isAdmin) {
             throw new RuntimeException("Only admin or user can remove from the group chat");
         }
 
         int updated = chatParticipantRepository.removeUserFromRoom(userId, roomId);
+        membershipCache.invalidate(roomId);
 
         if (updated == 0) {
             throw new IllegalArgumentException("User not found in the chat");
@@ -201,16 +261,17 @@ public class ChatService {
     }
 
     public void promoteUserToAdmin(Long roomId, Long userId, Long requestingUserId) {
-        if (!chatParticipantRepository.isUserAdminInRoom(requestingUserId, roomId)) {
+        if (!membershipCache.isAdmin(requestingUserId, roomId)) {
             throw new RuntimeException("Only admins can promote to other users");
         }
-        if (chatParticipantRepository.isUserAdminInRoom(userId, roomId)) {
+        if (membershipCache.isAdmin(userId, roomId)) {
             throw new RuntimeException("User is an admin already");
         }
-        if (!chatParticipantRepository.isUserActiveInRoom(userId, roomId)) {
+        if (!membershipCache.isActive(userId, roomId)) {
             throw new RuntimeException("User is not in the room");
         }
         int updated = chatParticipantRepository.updateUserRole(userId, roomId, ParticipantRole.ADMIN);
+        membershipCache.invalidate(roomId);
 
         if (updated == 0) {
             throw new RuntimeException("failed to update user role");
@@ -234,6 +295,7 @@ public class ChatService {
                 .build();
 
         chatParticipantRepository.save(participant);
+        membershipCache.invalidate(roomId);
     }
 
     private void addUserToGroupChatInternal(Long roomId, Long userId, ParticipantRole role) {
@@ -254,10 +316,12 @@ public class ChatService {
                     .build();
             chatParticipantRepository.save(participant);
         }
+        membershipCache.invalidate(roomId);
     }
 
     private void createSystemMessage(Long roomId, String content) {
         Message systMessage = Message.builder()
+                .id(idGenerator.nextId())
                 .chatRoomId(roomId)
                 .content(content)
                 .messageType(MessageType.SYSTEM_MESSAGE)
@@ -0,0 +1,67 @@
+package com.friendavailability.service;
+
+/**
+ * Busy/free summary of a day at 15-minute granularity: 96 buckets packed into two longs.
+ * Bucket {@code b} covers [midnight + 15b min, midnight + 15(b+1) min); buckets 0-63 live in
+ * the first long and 64-95 in the low bits of the second.
+ *
+ * Arrays of days are stored flat as {@code [lo0, hi0, lo1, hi1, ...]}.
+ */
+public final class DayBitmap {
+
+    public static final int BUCKET_SECONDS = 15 * 60;
+    public static final int BUCKETS_PER_DAY = 96;
+    public static final long SECONDS_PER_DAY = 86_400L;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private DayBitmap() {
+    }
+
+    /**
+     * Marks the buckets touched by [start, end) in a flat array of days beginning at
+     * {@code firstDayStart} (epoch seconds of midnight).
+     */
+    public static void scatter(long[] days, long firstDayStart, long start, long end) {
+        long rangeEnd = firstDayStart + (days.length / 2) * SECONDS_PER_DAY;
+        start = Math.max(start, firstDayStart);
+        end = Math.min(end, rangeEnd);
+        if (start >= end) {
+            return;
+        }
+        long firstBucket = (start - firstDayStart) / BUCKET_SECONDS;
+        long lastBucket = (end - 1 - firstDayStart) / BUCKET_SECONDS;
+        for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            int day = (int) (bucket / BUCKETS_PER_DAY);
+            int bit = (int) (bucket % BUCKETS_PER_DAY);
+            days[day * 2 + (bit >> 6)] |= 1L << (bit & 63);
+        }
+    }
+
+    /**
+     * 24 hex characters, one per hour; within a character the lowest bit is the first quarter.
+     */
+    public static String toHex(long lo, long hi) {
+        char[] chars = new char[BUCKETS_PER_DAY / 4];
+        for (int hour = 0; hour < chars.length; hour++) {
+            int bit = hour * 4;
+            long word = bit < 64 ? lo : hi;
+            chars[hour] = HEX[(int) ((word >>> (bit & 63)) & 0xF)];
+        }
+        return new String(chars);
+    }
+
+    /** Buckets busy for everyone. */
+    public static void and(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+    }
+
+    /** Buckets busy for anyone. */
+    public static void or(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= other[i];
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.friendavailability.service;
 
+import com.friendavailability.dto.availability.ReminderDto;
 import com.friendavailability.model.User;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +9,7 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StreamUtils;
+import org.springframework.web.util.HtmlUtils;
 
 import java.nio.charset.StandardCharsets;
 
@@ -90,6 +92,40 @@ public class EmailService {
         }
     }
 
+    public boolean sendReminderEmail(User user, ReminderDto reminder) {
+        try {
+            System.out.println("Preparing reminder email for: " + user.getEmail());
+
+            String dashboardUrl = baseUrl + "/dashboard.html";
+
+            String htmlContent = loadTemplate("reminder-email.html");
+            htmlContent = processTemplate(htmlContent, user, dashboardUrl, baseUrl)
+                    // Titles and locations can come from imported calendars, so nothing is inserted unescaped
+                    .replace("{{eventTitle}}", HtmlUtils.htmlEscape(reminder.getTitle() != null ? reminder.getTitle() : "Untitled event"))
+                    .replace("{{eventStart}}", HtmlUtils.htmlEscape(String.valueOf(reminder.getStartTime())))
+                    .replace("{{eventEnd}}", HtmlUtils.htmlEscape(String.valueOf(reminder.getEndTime())))
+                    .replace("{{eventLocation}}", HtmlUtils.htmlEscape(reminder.getLocation() != null ? reminder.getLocation() : "-"));
+
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+            helper.setFrom(fromAddress, fromName);
+            helper.setTo(user.getEmail());
+            helper.setSubject("Reminder: " + (reminder.getTitle() != null ? reminder.getTitle() : "upcoming event"));
+            helper.setText(htmlContent, true);
+
+            mailSender.send(message);
+
+            System.out.println("Reminder email sent successfully to: " + user.getEmail());
+            return true;
+
+        } catch (Exception e) {
+            System.err.println("Failed to send reminder email to: " + user.getEmail());
+            System.err.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
+
     private String loadTemplate(String templateName) throws Exception {
         String templatePath = "static/email/templates/" + templateName;
         ClassPathResource resource = new ClassPathResource(templatePath);
@@ -104,8 +140,8 @@ public class EmailService {
 
     private String processTemplate(String template, User user, String primaryUrl, String secondaryUrl) {
         return template
-                .replace("{{userName}}", user.getName())
-                .replace("{{userEmail}}", user.getEmail())
+                .replace("{{userName}}", HtmlUtils.htmlEscape(user.getName()))
+                .replace("{{userEmail}}", HtmlUtils.htmlEscape(user.getEmail()))
                 .replace("{{verificationUrl}}", primaryUrl)
                 .replace("{{dashboardUrl}}", primaryUrl)
                 .replace("{{resetUrl}}", primaryUrl)
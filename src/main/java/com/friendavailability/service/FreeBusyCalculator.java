@@ -0,0 +1,181 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Free/busy arithmetic over intervals encoded as flat {@code long[]} arrays of
+ * start/end epoch-second pairs: {@code [s0, e0, s1, e1, ...]}.
+ *
+ * Keeps the hot calendar paths free of per-interval object allocation; callers only
+ * convert back to {@link LocalDateTime} for the slots they actually return.
+ *
+ * Epoch seconds are real instants: events are converted from their own time zone, and bare
+ * {@link LocalDateTime} query bounds are read as UTC.
+ */
+public final class FreeBusyCalculator {
+
+    private FreeBusyCalculator() {
+    }
+
+    public static long toEpoch(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime fromEpoch(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    /** Wall-clock time of an epoch second in the given zone. */
+    public static LocalDateTime fromEpoch(long epochSecond, String timezone) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), Availability.zoneOf(timezone));
+    }
+
+    public static long startEpoch(Availability event) {
+        return Availability.epochOf(event.getStartTime(), event.getTimezone());
+    }
+
+    public static long endEpoch(Availability event) {
+        return Availability.epochOf(event.getEndTime(), event.getTimezone());
+    }
+
+    public static LocalDateTime nowUtc() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    /**
+     * Encodes the events as pairs clipped to [windowStart, windowEnd), sorted by start.
+     * Events outside the window are dropped; when {@code busyOnly} is set, free events are too.
+     */
+    public static long[] encode(List<Availability> events, long windowStart, long windowEnd, boolean busyOnly) {
+        long[] pairs = new long[events.size() * 2];
+        int size = 0;
+        boolean sorted = true;
+        for (Availability event : events) {
+            if (busyOnly && !Boolean.TRUE.equals(event.getIsBusy())) {
+                continue;
+            }
+            long start = Math.max(windowStart, startEpoch(event));
+            long end = Math.min(windowEnd, endEpoch(event));
+            if (start >= end) {
+                continue;
+            }
+            if (size > 0 && start < pairs[size - 2]) {
+                sorted = false;
+            }
+            pairs[size++] = start;
+            pairs[size++] = end;
+        }
+        if (size != pairs.length) {
+            pairs = Arrays.copyOf(pairs, size);
+        }
+        if (!sorted) {
+            sortPairs(pairs);
+        }
+        return pairs;
+    }
+
+    /**
+     * Merges overlapping or touching pairs of a start-sorted array in one pass.
+     * Returns a new array containing only disjoint intervals.
+     */
+    public static long[] merge(long[] sortedPairs) {
+        if (sortedPairs.length == 0) {
+            return sortedPairs;
+        }
+        long[] merged = new long[sortedPairs.length];
+        int size = 0;
+        long currentStart = sortedPairs[0];
+        long currentEnd = sortedPairs[1];
+        for (int i = 2; i < sortedPairs.length; i += 2) {
+            if (sortedPairs[i] <= currentEnd) {
+                currentEnd = Math.max(currentEnd, sortedPairs[i + 1]);
+            } else {
+                merged[size++] = currentStart;
+                merged[size++] = currentEnd;
+                currentStart = sortedPairs[i];
+                currentEnd = sortedPairs[i + 1];
+            }
+        }
+        merged[size++] = currentStart;
+        merged[size++] = currentEnd;
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * The gaps of [windowStart, windowEnd) not covered by the given merged pairs,
+     * keeping only gaps of at least {@code minDuration} seconds.
+     */
+    public static long[] gaps(long[] mergedPairs, long windowStart, long windowEnd, long minDuration) {
+        long[] gaps = new long[mergedPairs.length + 2];
+        int size = 0;
+        long cursor = windowStart;
+        long threshold = Math.max(1, minDuration);
+        for (int i = 0; i < mergedPairs.length && cursor < windowEnd; i += 2) {
+            if (mergedPairs[i] - cursor >= threshold) {
+                gaps[size++] = cursor;
+                gaps[size++] = mergedPairs[i];
+            }
+            cursor = Math.max(cursor, mergedPairs[i + 1]);
+        }
+        if (windowEnd - cursor >= threshold) {
+            gaps[size++] = cursor;
+            gaps[size++] = windowEnd;
+        }
+        return size == gaps.length ? gaps : Arrays.copyOf(gaps, size);
+    }
+
+    /**
+     * Sorts pairs by start time in place, keeping each start with its end. Heapsort over the
+     * pairs themselves, so nothing is boxed or copied; input that is already ordered (the usual
+     * case, rows come back ordered by start) is detected in one pass.
+     */
+    public static void sortPairs(long[] pairs) {
+        int count = pairs.length / 2;
+        boolean sorted = true;
+        for (int i = 1; i < count && sorted; i++) {
+            sorted = pairs[(i - 1) * 2] <= pairs[i * 2];
+        }
+        if (sorted) {
+            return;
+        }
+        for (int root = count / 2 - 1; root >= 0; root--) {
+            siftDown(pairs, root, count);
+        }
+        for (int last = count - 1; last > 0; last--) {
+            swapPairs(pairs, 0, last);
+            siftDown(pairs, 0, last);
+        }
+    }
+
+    private static void siftDown(long[] pairs, int root, int count) {
+        while (true) {
+            int child = root * 2 + 1;
+            if (child >= count) {
+                return;
+            }
+            if (child + 1 < count && pairs[(child + 1) * 2] > pairs[child * 2]) {
+                child++;
+            }
+            if (pairs[root * 2] >= pairs[child * 2]) {
+                return;
+            }
+            swapPairs(pairs, root, child);
+            root = child;
+        }
+    }
+
+    private static void swapPairs(long[] pairs, int a, int b) {
+        long start = pairs[a * 2];
+        long end = pairs[a * 2 + 1];
+        pairs[a * 2] = pairs[b * 2];
+        pairs[a * 2 + 1] = pairs[b * 2 + 1];
+        pairs[b * 2] = start;
+        pairs[b * 2 + 1] = end;
+    }
+}
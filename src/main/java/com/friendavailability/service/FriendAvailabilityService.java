@@ -0,0 +1,120 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.availability.FriendAvailabilityStatusDto;
+import com.friendavailability.model.Availability;
+import com.friendavailability.repository.AvailabilityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+@DependsOn("availabilityEpochBackfill")
+@Transactional(readOnly = true)
+public class FriendAvailabilityService {
+
+    private final FriendService friendService;
+    private final AvailabilityRepository availabilityRepository;
+    private final AvailabilityArchive availabilityArchive;
+    private final UserDisplayNameCache userDisplayNameCache;
+
+    @Autowired
+    public FriendAvailabilityService(FriendService friendService, AvailabilityRepository availabilityRepository,
+                                     AvailabilityArchive availabilityArchive, UserDisplayNameCache userDisplayNameCache) {
+        this.friendService = friendService;
+        this.availabilityRepository = availabilityRepository;
+        this.availabilityArchive = availabilityArchive;
+        this.userDisplayNameCache = userDisplayNameCache;
+        System.out.println("FriendAvailabilityService created");
+    }
+
+    public List<FriendAvailabilityStatusDto> getFriendsAvailabilityNow(Long userId) {
+        LocalDateTime now = FreeBusyCalculator.nowUtc();
+        return getFriendsAvailability(userId, now, now);
+    }
+
+    /**
+     * Free/busy status for every accepted friend of the user over the UTC range [start, end].
+     * Friends' events are matched on their UTC instants, whatever zone they were entered in;
+     * {@code busyUntil} is reported in UTC.
+     *
+     * Friend IDs, names and events are each fetched with a single query, regardless of how
+     * many friends the user has; names come from {@link UserDisplayNameCache}. Archived events
+     * are added when the range reaches into the archive.
+     */
+    public List<FriendAvailabilityStatusDto> getFriendsAvailability(Long userId, LocalDateTime start, LocalDateTime end) {
+        System.out.println("Getting friends availability for user " + userId + " from " + start + " to " + end);
+
+        if (start.isAfter(end)) {
+            throw new RuntimeException("Start time must not be after end time");
+        }
+
+        List<Long> friendIds = friendService.getFriendIds(userId);
+        if (friendIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, String> names = userDisplayNameCache.namesOf(friendIds);
+
+        List<Availability> events = new ArrayList<>(availabilityRepository.findByUserIdsAndDateRangeOverlap(friendIds,
+                FreeBusyCalculator.toEpoch(start), FreeBusyCalculator.toEpoch(end)));
+        if (availabilityArchive.covers(start)) {
+            events.addAll(availabilityArchive.findOverlapping(friendIds, start, end));
+        }
+        events.addAll(expandRecurringEvents(friendIds, start, end));
+
+        Map<Long, List<Availability>> eventsByFriend = new HashMap<>();
+        for (Availability event : events) {
+            eventsByFriend.computeIfAbsent(event.getUserId(), id -> new ArrayList<>()).add(event);
+        }
+        eventsByFriend.values().forEach(list -> list.sort(Comparator.comparingLong(FreeBusyCalculator::startEpoch)));
+
+        List<FriendAvailabilityStatusDto> statuses = new ArrayList<>(friendIds.size());
+        for (Long friendId : friendIds) {
+            List<Availability> friendEvents = eventsByFriend.getOrDefault(friendId, List.of());
+
+            long busyUntil = Long.MIN_VALUE;
+            for (Availability event : friendEvents) {
+                if (Boolean.TRUE.equals(event.getIsBusy())) {
+                    busyUntil = Math.max(busyUntil, FreeBusyCalculator.endEpoch(event));
+                }
+            }
+
+            statuses.add(FriendAvailabilityStatusDto.builder()
+                    .friendId(friendId)
+                    .friendName(names.get(friendId))
+                    .isBusy(busyUntil != Long.MIN_VALUE)
+                    .busyUntil(busyUntil != Long.MIN_VALUE ? FreeBusyCalculator.fromEpoch(busyUntil) : null)
+                    .events(friendEvents)
+                    .build());
+        }
+
+        System.out.println("Resolved availability for " + statuses.size() + " friends");
+        return statuses;
+    }
+
+    /**
+     * Occurrences of the friends' recurring events inside the window. Masters still running in
+     * it and their overrides near it are each loaded with one query.
+     */
+    private List<Availability> expandRecurringEvents(List<Long> friendIds, LocalDateTime start, LocalDateTime end) {
+        List<Availability> masters = availabilityRepository.findRecurringMastersForUsers(friendIds,
+                FreeBusyCalculator.toEpoch(start), FreeBusyCalculator.toEpoch(end));
+        if (masters.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> masterIds = masters.stream().map(Availability::getId).toList();
+        Map<Long, Set<LocalDateTime>> overridden = new HashMap<>();
+        // Original start times are wall-clock times in the master's zone, hence the extra day either side
+        for (Availability override : availabilityRepository.findByRecurrenceParentIdInAndOriginalStartTimeBetween(
+                masterIds, start.minusDays(1), end.plusDays(1))) {
+            overridden.computeIfAbsent(override.getRecurrenceParentId(), id -> new HashSet<>())
+                    .add(override.getOriginalStartTime());
+        }
+        return AvailabilityIndex.expand(masters, overridden, start, end, true, null);
+    }
+}
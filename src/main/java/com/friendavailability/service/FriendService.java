@@ -93,9 +93,22 @@ public class FriendService {
     public List<User> getFriends(Long userId) {
         System.out.println("Getting all friends for user " + userId);
 
+        List<Long> friendIds = getFriendIds(userId);
+
+        List<User> friends = friendIds.stream()
+                .map(userService::findUserById)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .toList();
+
+        System.out.println("Found " + friends.size() + " friends for user " + userId);
+        return friends;
+    }
+
+    public List<Long> getFriendIds(Long userId) {
         List<Friend> acceptedFriendships = friendRepository.findAcceptedFriendshipsForUser(userId);
 
-        List<Long> friendIds = acceptedFriendships.stream()
+        return acceptedFriendships.stream()
                 .map(friendship -> {
                     if (friendship.getUserId().equals(userId)) {
                         return friendship.getFriendId();
@@ -103,16 +116,8 @@ public class FriendService {
                         return friendship.getUserId();
                     }
                 })
+                .distinct()
                 .toList();
-
-        List<User> friends = friendIds.stream()
-                .map(userService::findUserById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
-
-        System.out.println("Found " + friends.size() + " friends for user " + userId);
-        return friends;
     }
 
     public List<Friend> getPendingRequests(Long userId){
@@ -0,0 +1,389 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.availability.AvailabilityHeatmapDto;
+import com.friendavailability.dto.availability.FreeSlotDto;
+import com.friendavailability.dto.availability.MeetingSlotDto;
+import com.friendavailability.model.Availability;
+import com.friendavailability.repository.ChatParticipantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static com.friendavailability.service.FreeBusyCalculator.fromEpoch;
+import static com.friendavailability.service.FreeBusyCalculator.toEpoch;
+
+@Service
+@Transactional(readOnly = true)
+public class GroupAvailabilityService {
+
+    private static final int MAX_GROUP_SIZE = 100;
+    private static final int MAX_MEETING_WINDOW_DAYS = 62;
+    private static final int DEFAULT_MEETING_SUGGESTIONS = 5;
+    private static final int MAX_MEETING_SUGGESTIONS = 50;
+    private static final int MAX_HEATMAP_DAYS = 92;
+    private static final int HOURS_PER_DAY = 24;
+    private static final long SECONDS_PER_HOUR = 60 * 60;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    // Suggested start times are rounded up to this grid when the slot allows it
+    private static final long START_STEP_SECONDS = 15 * 60;
+
+    private static final Comparator<MeetingCandidate> BEST_FIRST = Comparator
+            .comparingInt((MeetingCandidate c) -> -c.available)
+            .thenComparingLong(c -> c.distance)
+            .thenComparingLong(c -> c.start);
+
+    private final AvailabilityIndex availabilityIndex;
+    private final ChatParticipantRepository chatParticipantRepository;
+
+    @Autowired
+    public GroupAvailabilityService(AvailabilityIndex availabilityIndex,
+                                    ChatParticipantRepository chatParticipantRepository) {
+        this.availabilityIndex = availabilityIndex;
+        this.chatParticipantRepository = chatParticipantRepository;
+        System.out.println("GroupAvailabilityService created");
+    }
+
+    /**
+     * Slots inside [start, end) where none of the given users has a busy event.
+     *
+     * Each user's busy intervals are already sorted by start time, so they are combined with a
+     * k-way merge: a heap holds the next interval of every user and the sweep advances over
+     * the union of busy time, emitting the gaps. Runs in O(total events * log N).
+     */
+    public List<FreeSlotDto> findCommonFreeTime(List<Long> userIds, LocalDateTime start, LocalDateTime end,
+                                                Integer minDurationMinutes) {
+        System.out.println("Finding common free time for users " + userIds + " from " + start + " to " + end);
+
+        if (userIds == null || userIds.isEmpty()) {
+            throw new RuntimeException("At least one user is required");
+        }
+        if (userIds.size() > MAX_GROUP_SIZE) {
+            throw new RuntimeException("Cannot search more than " + MAX_GROUP_SIZE + " users at once");
+        }
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        if (minDurationMinutes != null && minDurationMinutes < 0) {
+            throw new RuntimeException("Minimum duration cannot be negative");
+        }
+
+        long windowStart = toEpoch(start);
+        long windowEnd = toEpoch(end);
+        long minDuration = minDurationMinutes != null ? minDurationMinutes * 60L : 0L;
+
+        List<long[]> busyByUser = new ArrayList<>();
+        for (Long userId : new LinkedHashSet<>(userIds)) {
+            long[] busy = busyIntervals(userId, start, end);
+            if (busy.length > 0) {
+                busyByUser.add(busy);
+            }
+        }
+
+        // Heap entries are {userIndex, position}; ordered by the start of that interval.
+        PriorityQueue<int[]> heap = new PriorityQueue<>(Math.max(1, busyByUser.size()),
+                (a, b) -> Long.compare(busyByUser.get(a[0])[a[1]], busyByUser.get(b[0])[b[1]]));
+        for (int i = 0; i < busyByUser.size(); i++) {
+            heap.add(new int[]{i, 0});
+        }
+
+        List<FreeSlotDto> freeSlots = new ArrayList<>();
+        long cursor = windowStart;
+        while (!heap.isEmpty() && cursor < windowEnd) {
+            int[] head = heap.poll();
+            long[] busy = busyByUser.get(head[0]);
+            long busyStart = busy[head[1]];
+            long busyEnd = busy[head[1] + 1];
+
+            if (busyStart > cursor) {
+                addSlot(freeSlots, cursor, busyStart, minDuration);
+            }
+            cursor = Math.max(cursor, busyEnd);
+
+            head[1] += 2;
+            if (head[1] < busy.length) {
+                heap.add(head);
+            }
+        }
+        if (cursor < windowEnd) {
+            addSlot(freeSlots, cursor, windowEnd, minDuration);
+        }
+
+        System.out.println("Found " + freeSlots.size() + " common free slots");
+        return freeSlots;
+    }
+
+    /**
+     * The best {@code limit} start times for a meeting of the given length, ranked by how
+     * many participants are free for all of it, then by distance from the preferred hours,
+     * then by start time. Participants are the given users plus the active members of the
+     * chat room, if one is given.
+     *
+     * For every participant, the times they could start the meeting form a few ranges: each
+     * free gap of at least the meeting length, shortened by that length. Sweeping over the
+     * sorted boundaries of all these ranges gives pieces of time with a constant number of
+     * free participants. Each piece, split per day, offers its best start to a heap that keeps
+     * only the top {@code limit} candidates. Runs in O(E log E) for E busy events.
+     */
+    public List<MeetingSlotDto> findBestMeetingTimes(List<Long> userIds, Long chatRoomId,
+                                                     LocalDateTime start, LocalDateTime end, Integer durationMinutes,
+                                                     LocalTime preferredStart, LocalTime preferredEnd, Integer limit) {
+        System.out.println("Finding best meeting times for users " + userIds + " and chat room " + chatRoomId
+                + " from " + start + " to " + end);
+
+        Set<Long> participantIds = resolveParticipants(userIds, chatRoomId);
+        if (start == null || end == null || !start.isBefore(end)) {
+            throw new RuntimeException("Start time must be before end time");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_MEETING_WINDOW_DAYS) {
+            throw new RuntimeException("Search window cannot exceed " + MAX_MEETING_WINDOW_DAYS + " days");
+        }
+        if (durationMinutes == null || durationMinutes <= 0) {
+            throw new RuntimeException("Duration must be positive");
+        }
+        if ((preferredStart == null) != (preferredEnd == null)) {
+            throw new RuntimeException("Preferred start and end time must be given together");
+        }
+        if (preferredStart != null && !preferredStart.isBefore(preferredEnd)) {
+            throw new RuntimeException("Preferred start time must be before preferred end time");
+        }
+        int maxResults = limit != null ? limit : DEFAULT_MEETING_SUGGESTIONS;
+        if (maxResults <= 0 || maxResults > MAX_MEETING_SUGGESTIONS) {
+            throw new RuntimeException("Limit must be between 1 and " + MAX_MEETING_SUGGESTIONS);
+        }
+
+        long windowStart = toEpoch(start);
+        long windowEnd = toEpoch(end);
+        long duration = durationMinutes * 60L;
+
+        List<Long> participants = new ArrayList<>(participantIds);
+        long[][] busyByUser = new long[participants.size()][];
+        // Boundary events encoded as time * 2 + 1 for "starts being free", time * 2 for "stops"
+        // so a plain sort puts a range's end before another range's start at the same second.
+        long[] boundaries = new long[16];
+        int boundaryCount = 0;
+        for (int i = 0; i < participants.size(); i++) {
+            busyByUser[i] = FreeBusyCalculator.merge(busyIntervals(participants.get(i), start, end));
+            long[] gaps = FreeBusyCalculator.gaps(busyByUser[i], windowStart, windowEnd, duration);
+            if (boundaryCount + gaps.length > boundaries.length) {
+                boundaries = Arrays.copyOf(boundaries, Math.max(boundaries.length * 2, boundaryCount + gaps.length));
+            }
+            for (int g = 0; g < gaps.length; g += 2) {
+                boundaries[boundaryCount++] = gaps[g] * 2 + 1;
+                boundaries[boundaryCount++] = (gaps[g + 1] - duration + 1) * 2;
+            }
+        }
+        Arrays.sort(boundaries, 0, boundaryCount);
+
+        long preferredFrom = preferredStart != null ? preferredStart.toSecondOfDay() : -1;
+        long preferredTo = preferredEnd != null ? preferredEnd.toSecondOfDay() : -1;
+
+        // Worst candidate at the head, so the heap never holds more than maxResults entries
+        PriorityQueue<MeetingCandidate> best = new PriorityQueue<>(maxResults + 1, BEST_FIRST.reversed());
+        int free = 0;
+        long pieceStart = windowStart;
+        for (int i = 0; i < boundaryCount; i++) {
+            long time = boundaries[i] >> 1;
+            if (free > 0 && time > pieceStart) {
+                offerPiece(best, maxResults, pieceStart, time, free, duration, preferredFrom, preferredTo);
+            }
+            free += (boundaries[i] & 1) == 1 ? 1 : -1;
+            pieceStart = time;
+        }
+
+        List<MeetingCandidate> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        List<MeetingSlotDto> slots = new ArrayList<>(ranked.size());
+        for (MeetingCandidate candidate : ranked) {
+            List<Long> available = new ArrayList<>(candidate.available);
+            for (int i = 0; i < participants.size(); i++) {
+                if (isFree(busyByUser[i], candidate.start, candidate.start + duration)) {
+                    available.add(participants.get(i));
+                }
+            }
+            slots.add(MeetingSlotDto.builder()
+                    .startTime(fromEpoch(candidate.start))
+                    .endTime(fromEpoch(candidate.start + duration))
+                    .availableCount(candidate.available)
+                    .participantCount(participants.size())
+                    .availableUserIds(available)
+                    .minutesFromPreferred((candidate.distance + 59) / 60)
+                    .build());
+        }
+
+        System.out.println("Found " + slots.size() + " meeting time suggestions for " + participants.size() + " participants");
+        return slots;
+    }
+
+    /**
+     * Offers the best start of every day covered by the piece [from, to) of start times.
+     */
+    private void offerPiece(PriorityQueue<MeetingCandidate> best, int maxResults, long from, long to, int available,
+                            long duration, long preferredFrom, long preferredTo) {
+        for (long dayStart = Math.floorDiv(from, SECONDS_PER_DAY) * SECONDS_PER_DAY; dayStart < to; dayStart += SECONDS_PER_DAY) {
+            long a = Math.max(from, dayStart);
+            long b = Math.min(to, dayStart + SECONDS_PER_DAY);
+            if (a >= b) {
+                continue;
+            }
+
+            long lo = a;
+            long hi = a;
+            if (preferredFrom >= 0) {
+                // Starts that keep the whole meeting inside the preferred hours of this day
+                lo = dayStart + preferredFrom;
+                hi = Math.max(lo, dayStart + preferredTo - duration);
+            }
+            long startAt = Math.min(Math.max(a, lo), b - 1);
+            long aligned = Math.floorDiv(startAt + START_STEP_SECONDS - 1, START_STEP_SECONDS) * START_STEP_SECONDS;
+            if (aligned < b) {
+                startAt = aligned;
+            }
+            long distance = preferredFrom < 0 ? 0 : startAt < lo ? lo - startAt : Math.max(0, startAt - hi);
+
+            MeetingCandidate candidate = new MeetingCandidate(startAt, available, distance);
+            if (best.size() < maxResults) {
+                best.add(candidate);
+            } else if (BEST_FIRST.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Free participant counts per UTC hour over [from, to], as a day x hour matrix.
+     *
+     * Each participant's busy time is merged and rounded out to whole hours, then added to a
+     * difference array over all hours of the range (+1 where a busy run starts, -1 where it
+     * ends). One prefix sum turns that into the number of busy participants per hour, so the
+     * cost is O(busy intervals + hours) rather than per minute per user.
+     */
+    public AvailabilityHeatmapDto getAvailabilityHeatmap(List<Long> userIds, Long chatRoomId,
+                                                         LocalDate from, LocalDate to) {
+        System.out.println("Building availability heatmap for users " + userIds + " and chat room " + chatRoomId
+                + " from " + from + " to " + to);
+
+        Set<Long> participantIds = resolveParticipants(userIds, chatRoomId);
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("From date must not be after to date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_HEATMAP_DAYS) {
+            throw new RuntimeException("Heatmap range cannot exceed " + MAX_HEATMAP_DAYS + " days");
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        int hours = days * HOURS_PER_DAY;
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        long windowStart = toEpoch(start);
+
+        int[] diff = new int[hours + 1];
+        for (Long userId : participantIds) {
+            long[] busy = FreeBusyCalculator.merge(busyIntervals(userId, start, end));
+            // Merged intervals can still share an hour; never mark an hour twice for one user
+            int marked = 0;
+            for (int i = 0; i < busy.length; i += 2) {
+                int firstHour = Math.max(marked, (int) ((busy[i] - windowStart) / SECONDS_PER_HOUR));
+                int endHour = (int) ((busy[i + 1] - windowStart + SECONDS_PER_HOUR - 1) / SECONDS_PER_HOUR);
+                if (firstHour < endHour) {
+                    diff[firstHour]++;
+                    diff[endHour]--;
+                    marked = endHour;
+                }
+            }
+        }
+
+        int[][] free = new int[days][HOURS_PER_DAY];
+        int busyCount = 0;
+        for (int hour = 0; hour < hours; hour++) {
+            busyCount += diff[hour];
+            free[hour / HOURS_PER_DAY][hour % HOURS_PER_DAY] = participantIds.size() - busyCount;
+        }
+
+        return AvailabilityHeatmapDto.builder()
+                .from(from)
+                .to(to)
+                .participantCount(participantIds.size())
+                .participantIds(new ArrayList<>(participantIds))
+                .free(free)
+                .build();
+    }
+
+    /** The given users plus the active members of the chat room, if one is given. */
+    private Set<Long> resolveParticipants(List<Long> userIds, Long chatRoomId) {
+        Set<Long> participantIds = new LinkedHashSet<>();
+        if (userIds != null) {
+            participantIds.addAll(userIds);
+        }
+        if (chatRoomId != null) {
+            chatParticipantRepository.findByChatRoomIdAndIsActiveTrue(chatRoomId)
+                    .forEach(participant -> participantIds.add(participant.getUserId()));
+        }
+        if (participantIds.isEmpty()) {
+            throw new RuntimeException("At least one participant is required");
+        }
+        if (participantIds.size() > MAX_GROUP_SIZE) {
+            throw new RuntimeException("Cannot search more than " + MAX_GROUP_SIZE + " users at once");
+        }
+        return participantIds;
+    }
+
+    /** Whether none of the merged busy pairs overlaps [start, end). */
+    private static boolean isFree(long[] mergedBusy, long start, long end) {
+        // First pair ending after start; merged pairs are disjoint, so their ends are sorted too
+        int low = 0;
+        int high = mergedBusy.length / 2;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (mergedBusy[mid * 2 + 1] <= start) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == mergedBusy.length / 2 || mergedBusy[low * 2] >= end;
+    }
+
+    /**
+     * Busy intervals for one user clipped to the window, encoded as start/end epoch-second pairs.
+     */
+    private long[] busyIntervals(Long userId, LocalDateTime start, LocalDateTime end) {
+        List<Availability> events = availabilityIndex.findOverlapping(userId, start, end, false);
+        return FreeBusyCalculator.encode(events, toEpoch(start), toEpoch(end), true);
+    }
+
+    private void addSlot(List<FreeSlotDto> freeSlots, long start, long end, long minDuration) {
+        if (end - start < Math.max(1, minDuration)) {
+            return;
+        }
+        freeSlots.add(FreeSlotDto.builder()
+                .startTime(fromEpoch(start))
+                .endTime(fromEpoch(end))
+                .durationMinutes((end - start) / 60)
+                .build());
+    }
+
+    private static final class MeetingCandidate {
+        private final long start;
+        private final int available;
+        private final long distance;
+
+        private MeetingCandidate(long start, int available, long distance) {
+            this.start = start;
+            this.available = available;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.friendavailability.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Incremental RFC 5545 parser: reads one unfolded content line at a time and hands each
+ * VEVENT to the callback as soon as its END line is seen, so only a single event is ever held
+ * in memory. Components other than VEVENT (VTIMEZONE, VTODO, ...) are skipped; TZID
+ * parameters are resolved against the JDK's zone database.
+ */
+public final class ICalendarReader {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /** A parsed VEVENT. Times are wall-clock times in {@link #timezone}. */
+    public static final class Event {
+        String uid;
+        String summary;
+        String description;
+        String location;
+        LocalDateTime start;
+        LocalDateTime end;
+        Duration duration;
+        String timezone = "UTC";
+        ZoneId startZone = ZoneOffset.UTC;
+        ZoneId endZone;
+        ZoneId recurrenceIdZone;
+        boolean allDay;
+        String recurrenceRule;
+        LocalDateTime recurrenceId;
+        boolean transparent;
+        boolean cancelled;
+        Integer reminderMinutes;
+
+        public String getUid() { return uid; }
+        public String getSummary() { return summary; }
+        public String getDescription() { return description; }
+        public String getLocation() { return location; }
+        public LocalDateTime getStart() { return start; }
+        public LocalDateTime getEnd() { return end; }
+        public String getTimezone() { return timezone; }
+        public boolean isAllDay() { return allDay; }
+        public String getRecurrenceRule() { return recurrenceRule; }
+        public LocalDateTime getRecurrenceId() { return recurrenceId; }
+        public boolean isTransparent() { return transparent; }
+        public boolean isCancelled() { return cancelled; }
+        public Integer getReminderMinutes() { return reminderMinutes; }
+    }
+
+    private ICalendarReader() {
+    }
+
+    /**
+     * Parses the calendar, calling {@code onEvent} for every VEVENT. Returns the number of
+     * events that could not be parsed and were skipped.
+     */
+    public static int read(Reader source, Consumer<Event> onEvent) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        int malformed = 0;
+        int depth = 0;          // nesting below the current VEVENT (VALARM etc.)
+        Event event = null;
+        boolean broken = false;
+
+        String pending = reader.readLine();
+        while (pending != null) {
+            // Unfold: continuation lines start with a single space or tab
+            StringBuilder unfolded = new StringBuilder(pending);
+            String next = reader.readLine();
+            while (next != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+                unfolded.append(next, 1, next.length());
+                next = reader.readLine();
+            }
+            pending = next;
+
+            String line = unfolded.toString();
+            if (line.isBlank()) {
+                continue;
+            }
+            Property property = Property.parse(line);
+            if (property == null) {
+                continue;
+            }
+
+            if (property.name.equals("BEGIN")) {
+                if (event == null && property.value.equalsIgnoreCase("VEVENT")) {
+                    event = new Event();
+                    broken = false;
+                } else if (event != null) {
+                    depth++;
+                }
+                continue;
+            }
+            if (property.name.equals("END")) {
+                if (event != null && depth > 0) {
+                    depth--;
+                } else if (event != null && property.value.equalsIgnoreCase("VEVENT")) {
+                    if (broken || event.start == null) {
+                        malformed++;
+                    } else {
+                        complete(event);
+                        onEvent.accept(event);
+                    }
+                    event = null;
+                }
+                continue;
+            }
+            if (event == null) {
+                continue;
+            }
+
+            try {
+                if (depth > 0) {
+                    if (property.name.equals("TRIGGER") && event.reminderMinutes == null) {
+                        event.reminderMinutes = triggerMinutes(property.value);
+                    }
+                } else {
+                    apply(event, property);
+                }
+            } catch (RuntimeException e) {
+                broken = true;
+            }
+        }
+        return malformed;
+    }
+
+    private static void apply(Event event, Property property) {
+        switch (property.name) {
+            case "UID" -> event.uid = property.value;
+            case "SUMMARY" -> event.summary = unescape(property.value);
+            case "DESCRIPTION" -> event.description = unescape(property.value);
+            case "LOCATION" -> event.location = unescape(property.value);
+            case "DTSTART" -> {
+                event.allDay = isDate(property);
+                event.startZone = zone(property);
+                event.timezone = event.startZone.equals(ZoneOffset.UTC) ? "UTC" : event.startZone.getId();
+                event.start = dateTime(property);
+            }
+            case "DTEND" -> {
+                event.endZone = zone(property);
+                event.end = dateTime(property);
+            }
+            case "DURATION" -> event.duration = duration(property.value);
+            case "RRULE" -> event.recurrenceRule = property.value;
+            case "RECURRENCE-ID" -> {
+                event.recurrenceIdZone = zone(property);
+                event.recurrenceId = dateTime(property);
+            }
+            case "TRANSP" -> event.transparent = property.value.equalsIgnoreCase("TRANSPARENT");
+            case "STATUS" -> event.cancelled = property.value.equalsIgnoreCase("CANCELLED");
+            default -> { }
+        }
+    }
+
+    /** Fills in DTEND from DURATION (or the RFC defaults) and moves other times into the start's zone. */
+    private static void complete(Event event) {
+        if (event.end != null && !event.allDay) {
+            event.end = inZone(event.end, event.endZone, event.startZone);
+        }
+        if (event.recurrenceId != null) {
+            event.recurrenceId = inZone(event.recurrenceId, event.recurrenceIdZone, event.startZone);
+        }
+        if (event.end == null) {
+            if (event.duration != null) {
+                event.end = event.start.plus(event.duration);
+            } else {
+                event.end = event.allDay ? event.start.plusDays(1) : event.start;
+            }
+        }
+        if (event.allDay) {
+            // Stored all-day events run from 00:00 to 23:59 of their last day
+            event.end = event.end.minusDays(1).withHour(23).withMinute(59);
+            if (event.end.isBefore(event.start)) {
+                event.end = event.start.withHour(23).withMinute(59);
+            }
+        }
+    }
+
+    private static boolean isDate(Property property) {
+        return "DATE".equalsIgnoreCase(property.params.get("VALUE")) || property.value.length() == 8;
+    }
+
+    private static ZoneId zone(Property property) {
+        if (property.value.endsWith("Z")) {
+            return ZoneOffset.UTC;
+        }
+        String tzid = property.params.get("TZID");
+        if (tzid != null) {
+            try {
+                return ZoneId.of(tzid.startsWith("/") ? tzid.substring(1) : tzid);
+            } catch (DateTimeException e) {
+                // Unknown zone names fall through to floating time
+            }
+        }
+        return ZoneOffset.UTC;
+    }
+
+    /** Parses a DATE or DATE-TIME value as wall time in the property's own zone. */
+    private static LocalDateTime dateTime(Property property) {
+        String value = property.value;
+        if (isDate(property)) {
+            return LocalDate.parse(value.substring(0, 8), DATE).atStartOfDay();
+        }
+        String local = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        return LocalDateTime.parse(local, DATE_TIME);
+    }
+
+    private static LocalDateTime inZone(LocalDateTime time, ZoneId from, ZoneId to) {
+        if (from == null || from.equals(to)) {
+            return time;
+        }
+        return time.atZone(from).withZoneSameInstant(to).toLocalDateTime();
+    }
+
+    private static Duration duration(String value) {
+        String normalized = value.startsWith("+") ? value.substring(1) : value;
+        boolean negative = normalized.startsWith("-");
+        if (negative) {
+            normalized = normalized.substring(1);
+        }
+        Duration duration;
+        int weeks = normalized.indexOf('W');
+        if (weeks > 0) {
+            duration = Duration.ofDays(7L * Long.parseLong(normalized.substring(1, weeks)));
+        } else {
+            duration = Duration.parse(normalized);
+        }
+        return negative ? duration.negated() : duration;
+    }
+
+    private static Integer triggerMinutes(String value) {
+        if (!value.startsWith("-") && !value.startsWith("P") && !value.startsWith("+")) {
+            return null; // absolute trigger
+        }
+        Duration offset = duration(value);
+        return offset.isNegative() || offset.isZero() ? (int) offset.negated().toMinutes() : null;
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                result.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /** NAME;PARAM=value;PARAM="quoted":value */
+    private static final class Property {
+        final String name;
+        final Map<String, String> params;
+        final String value;
+
+        private Property(String name, Map<String, String> params, String value) {
+            this.name = name;
+            this.params = params;
+            this.value = value;
+        }
+
+        static Property parse(String line) {
+            String name = null;
+            Map<String, String> params = Map.of();
+            boolean quoted = false;
+            int segmentStart = 0;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (!quoted && (c == ';' || c == ':')) {
+                    String segment = line.substring(segmentStart, i);
+                    if (name == null) {
+                        name = segment.trim().toUpperCase(Locale.ROOT);
+                    } else {
+                        if (params.isEmpty()) {
+                            params = new HashMap<>();
+                        }
+                        addParam(params, segment);
+                    }
+                    segmentStart = i + 1;
+                    if (c == ':') {
+                        return new Property(name, params, line.substring(i + 1).trim());
+                    }
+                }
+            }
+            return null;
+        }
+
+        private static void addParam(Map<String, String> params, String segment) {
+            int equals = segment.indexOf('=');
+            if (equals <= 0) {
+                return;
+            }
+            String paramValue = segment.substring(equals + 1);
+            if (paramValue.length() >= 2 && paramValue.startsWith("\"") && paramValue.endsWith("\"")) {
+                paramValue = paramValue.substring(1, paramValue.length() - 1);
+            }
+            params.put(segment.substring(0, equals).toUpperCase(Locale.ROOT), paramValue);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneRules;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes availability as RFC 5545 iCalendar text, one event at a time, so callers can stream
+ * a calendar of any size. Lines are CRLF-terminated and folded at 75 octets.
+ *
+ * Times of zoned events are written as local times with a TZID, so clients expand RRULEs in
+ * the same zone the app does and series keep their wall-clock time across DST changes. Each
+ * zone's VTIMEZONE, built from the JDK's rules, is written once, right before the first event
+ * that uses it.
+ */
+public final class ICalendarWriter {
+
+    static final String UID_SUFFIX = "@linkup";
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final LocalDateTime ZONE_HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final Writer writer;
+    private final Set<ZoneId> writtenZones = new HashSet<>();
+
+    public ICalendarWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void begin(String calendarName) throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//LinkUp//Friend Availability//EN");
+        line("CALSCALE:GREGORIAN");
+        line("METHOD:PUBLISH");
+        if (calendarName != null) {
+            line("X-WR-CALNAME:" + escape(calendarName));
+        }
+    }
+
+    public void end() throws IOException {
+        line("END:VCALENDAR");
+        writer.flush();
+    }
+
+    public void write(Availability availability) throws IOException {
+        ZoneId zone = Availability.zoneOf(availability.getTimezone());
+        if (!Boolean.TRUE.equals(availability.getIsAllDay()) && !zone.equals(ZoneOffset.UTC) && writtenZones.add(zone)) {
+            timezone(zone);
+        }
+
+        line("BEGIN:VEVENT");
+        line("UID:" + escape(uid(availability)));
+        // updatedAt is the server's local clock
+        LocalDateTime stamp = availability.getUpdatedAt() != null
+                ? availability.getUpdatedAt().atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime()
+                : FreeBusyCalculator.nowUtc();
+        dateTime("DTSTAMP", stamp, "UTC");
+
+        if (Boolean.TRUE.equals(availability.getIsAllDay())) {
+            line("DTSTART;VALUE=DATE:" + availability.getStartTime().toLocalDate().format(DATE));
+            line("DTEND;VALUE=DATE:" + availability.getEndTime().toLocalDate().plusDays(1).format(DATE));
+        } else {
+            dateTime("DTSTART", availability.getStartTime(), availability.getTimezone());
+            dateTime("DTEND", availability.getEndTime(), availability.getTimezone());
+        }
+
+        if (availability.isRecurringMaster()) {
+            line("RRULE:" + stripPrefix(availability.getRecurrenceRule()));
+        }
+        if (availability.isOccurrenceOverride()) {
+            dateTime("RECURRENCE-ID", availability.getOriginalStartTime(), availability.getTimezone());
+        }
+
+        optional("SUMMARY", availability.getTitle());
+        optional("DESCRIPTION", availability.getDescription());
+        optional("LOCATION", availability.getLocation());
+        line("TRANSP:" + (Boolean.TRUE.equals(availability.getIsBusy()) ? "OPAQUE" : "TRANSPARENT"));
+
+        if (availability.getReminderMinutes() != null && availability.getReminderMinutes() > 0) {
+            line("BEGIN:VALARM");
+            line("ACTION:DISPLAY");
+            line("DESCRIPTION:" + escape(availability.getTitle() != null ? availability.getTitle() : "Reminder"));
+            line("TRIGGER:-PT" + availability.getReminderMinutes() + "M");
+            line("END:VALARM");
+        }
+        line("END:VEVENT");
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Overrides share their series' UID (RFC 5545 identifies them by RECURRENCE-ID), and
+     * imported events keep the UID they came with.
+     */
+    static String uid(Availability availability) {
+        if (availability.getExternalId() != null) {
+            return availability.getExternalId();
+        }
+        Long id = availability.isOccurrenceOverride() ? availability.getRecurrenceParentId() : availability.getId();
+        return "availability-" + id + UID_SUFFIX;
+    }
+
+    private void optional(String name, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            line(name + ":" + escape(value));
+        }
+    }
+
+    /**
+     * VTIMEZONE of the zone: its offset at 1970, every transition since then, and the yearly
+     * rules that continue after the last one (if the zone still changes offsets).
+     */
+    private void timezone(ZoneId zone) throws IOException {
+        ZoneRules rules = zone.getRules();
+        line("BEGIN:VTIMEZONE");
+        line("TZID:" + zone.getId());
+
+        ZoneOffset initial = rules.getOffset(ZONE_HISTORY_START.toInstant(ZoneOffset.UTC));
+        observance(rules.isDaylightSavings(ZONE_HISTORY_START.toInstant(ZoneOffset.UTC)), ZONE_HISTORY_START,
+                initial, initial, null);
+        for (ZoneOffsetTransition transition : rules.getTransitions()) {
+            if (transition.getDateTimeBefore().isAfter(ZONE_HISTORY_START)) {
+                observance(rules.isDaylightSavings(transition.getInstant()), transition.getDateTimeBefore(),
+                        transition.getOffsetBefore(), transition.getOffsetAfter(), null);
+            }
+        }
+
+        List<ZoneOffsetTransitionRule> transitionRules = rules.getTransitionRules();
+        if (!transitionRules.isEmpty()) {
+            List<ZoneOffsetTransition> history = rules.getTransitions();
+            int firstYear = history.isEmpty()
+                    ? ZONE_HISTORY_START.getYear()
+                    : Math.max(ZONE_HISTORY_START.getYear(), history.get(history.size() - 1).getDateTimeAfter().getYear() + 1);
+            for (ZoneOffsetTransitionRule rule : transitionRules) {
+                ZoneOffsetTransition first = rule.createTransition(firstYear);
+                observance(!rule.getOffsetAfter().equals(rule.getStandardOffset()), first.getDateTimeBefore(),
+                        rule.getOffsetBefore(), rule.getOffsetAfter(), yearlyRule(rule));
+            }
+        }
+        line("END:VTIMEZONE");
+    }
+
+    private void observance(boolean daylight, LocalDateTime start, ZoneOffset from, ZoneOffset to, String rrule)
+            throws IOException {
+        String kind = daylight ? "DAYLIGHT" : "STANDARD";
+        line("BEGIN:" + kind);
+        line("DTSTART:" + start.format(DATE_TIME));
+        if (rrule != null) {
+            line("RRULE:" + rrule);
+        }
+        line("TZOFFSETFROM:" + offset(from));
+        line("TZOFFSETTO:" + offset(to));
+        line("END:" + kind);
+    }
+
+    /** RRULE of a JDK transition rule: a fixed day, or the given weekday on or after/before a day. */
+    private static String yearlyRule(ZoneOffsetTransitionRule rule) {
+        StringBuilder rrule = new StringBuilder("FREQ=YEARLY;BYMONTH=").append(rule.getMonth().getValue());
+        int day = rule.getDayOfMonthIndicator();
+        DayOfWeek weekday = rule.getDayOfWeek();
+        if (weekday == null) {
+            return rrule.append(";BYMONTHDAY=").append(day).toString();
+        }
+        rrule.append(";BYDAY=").append(weekday.name(), 0, 2);
+        // Seven candidate days, exactly one of which falls on the weekday
+        rrule.append(";BYMONTHDAY=");
+        int firstDay = day > 0 ? day : day - 6;
+        for (int i = 0; i < 7; i++) {
+            rrule.append(i == 0 ? "" : ",").append(firstDay + i);
+        }
+        return rrule.toString();
+    }
+
+    private static String offset(ZoneOffset offset) {
+        int seconds = offset.getTotalSeconds();
+        int abs = Math.abs(seconds);
+        String formatted = String.format("%s%02d%02d", seconds < 0 ? "-" : "+", abs / 3600, abs / 60 % 60);
+        return abs % 60 == 0 ? formatted : formatted + String.format("%02d", abs % 60);
+    }
+
+    /** UTC times (including unknown zones, which the app reads as UTC) get a Z; others a TZID. */
+    private void dateTime(String name, LocalDateTime time, String timezone) throws IOException {
+        ZoneId zone = Availability.zoneOf(timezone);
+        if (zone.equals(ZoneOffset.UTC)) {
+            line(name + ":" + time.format(DATE_TIME) + "Z");
+        } else {
+            line(name + ";TZID=" + zone.getId() + ":" + time.format(DATE_TIME));
+        }
+    }
+
+    private static String stripPrefix(String rule) {
+        return rule.regionMatches(true, 0, "RRULE:", 0, 6) ? rule.substring(6) : rule;
+    }
+
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case ';' -> escaped.append("\\;");
+                case ',' -> escaped.append("\\,");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> { }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /** Writes a content line, folding it so no physical line exceeds 75 octets. */
+    private void line(String content) throws IOException {
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            boolean surrogatePair = Character.isHighSurrogate(c) && i + 1 < content.length();
+            int size = surrogatePair ? 4 : c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            if (octets + size > limit) {
+                writer.write("\r\n ");
+                octets = 0;
+                // Continuation lines start with a space, which counts towards their length
+                limit = MAX_LINE_OCTETS - 1;
+            }
+            writer.write(c);
+            if (surrogatePair) {
+                writer.write(content.charAt(++i));
+            }
+            octets += size;
+        }
+        writer.write("\r\n");
+    }
+}
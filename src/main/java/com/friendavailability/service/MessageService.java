@@ -6,10 +6,13 @@ import com.friendavailability.repository.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,37 +21,50 @@ import java.util.Optional;
 public class MessageService {
 
     private final MessageRepository messageRepository;
-    private final ChatRoomRepository chatRoomRepository;
     private final ChatParticipantRepository chatParticipantRepository;
     private final UserRepository userRepository;
-
-    public MessageService(MessageRepository messageRepository, ChatRoomRepository chatRoomRepository
-    ,ChatParticipantRepository chatParticipantRepository, UserRepository userRepository){
+    private final SnowflakeIdGenerator idGenerator;
+    private final MessageWriteBuffer messageWriteBuffer;
+    private final RoomMembershipCache membershipCache;
+
+    public MessageService(MessageRepository messageRepository
+    ,ChatParticipantRepository chatParticipantRepository, UserRepository userRepository
+    ,SnowflakeIdGenerator idGenerator, MessageWriteBuffer messageWriteBuffer
+    ,RoomMembershipCache membershipCache){
         this.messageRepository = messageRepository;
         this.chatParticipantRepository = chatParticipantRepository;
-        this.chatRoomRepository = chatRoomRepository;
         this.userRepository = userRepository;
+        this.idGenerator = idGenerator;
+        this.messageWriteBuffer = messageWriteBuffer;
+        this.membershipCache = membershipCache;
     }
 
+    /**
+     * Accepts a message for write-behind persistence and returns it with its id assigned.
+     * The caller can broadcast it straight away; the sender is told on /user/queue/acks once
+     * it has been written. Runs without a transaction, so a cached membership check sends a
+     * message without checking out a connection.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Message sendMessage(Long senderId, Long roomId, String content){
-        validateUserCanAccessRoom(senderId, roomId);
         validateMessageContent(content);
+        // An active participant row implies both the user and the room exist
+        if(!membershipCache.isActive(senderId, roomId)){
+            throw new RuntimeException("User " + senderId + " is not authorised to send messages to room " + roomId);
+        }
 
-        try{
-            Message message = Message.builder()
-            .senderId(senderId)
+        Message message = Message.builder()
+                .id(idGenerator.nextId())
+                .senderId(senderId)
                 .chatRoomId(roomId)
                 .content(content.trim())
                 .messageType(MessageType.TEXT)
                 .sentAt(LocalDateTime.now())
                 .build();
-            Message savedMessage = messageRepository.save(message);
-            updateRoomLastActivity(roomId);
-            return savedMessage;
-        }catch(Exception e){
-            throw new RuntimeException("Failed to send message: " + e.getMessage(), e);
-
+        if(!messageWriteBuffer.enqueue(message)){
+            throw new RuntimeException("Failed to send message: chat is busy, please retry");
         }
+        return message;
     }
 
     private void validateMessageContent(String content) {
@@ -60,31 +76,13 @@ public class MessageService {
         }
     }
 
+    // Served from the membership cache; an active participant implies the user and room exist
     private void validateUserCanAccessRoom(Long senderId, Long roomId) {
-        if(!userRepository.existsById(senderId)){
-            throw new RuntimeException("User not found with id " + senderId);
-        }
-        if(!chatRoomRepository.existsById(roomId)){
-            throw new RuntimeException("Chat not found with id " + roomId);
-        }
-        if(!chatParticipantRepository.isUserActiveInRoom(senderId, roomId)){
+        if(!membershipCache.isActive(senderId, roomId)){
             throw new RuntimeException("User " + senderId + " is not authorised to send messages to room " + roomId);
         }
     }
 
-    private void updateRoomLastActivity(Long roomId){
-        try{
-            Optional<ChatRoom> roomOpt = chatRoomRepository.findById(roomId);
-            if(roomOpt.isPresent()){
-                ChatRoom room = roomOpt.get();
-                room.setUpdatedAt(LocalDateTime.now());
-                chatRoomRepository.save(room);
-            }
-        }catch(Exception e){
-            System.out.println("Failed to update the room activity " + e.getMessage());
-        }
-    }
-
     public Page<Message> getMessageHistory(Long roomId, Long userId, int page, int size){
         validateUserCanAccessRoom(userId, roomId);
         Pageable pageable = PageRequest.of(page, size);
@@ -93,6 +91,49 @@ public class MessageService {
         return messagePage;
     }
 
+    /**
+     * History older than the {@code before} cursor, newest first; the newest messages when the
+     * cursor is null. The cursor is either the {@link #nextCursor} of the previous slice
+     * ({@code <sentAt>_<id>}) or a plain message id from the room. No count query is run.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Message> getMessageHistoryBefore(Long roomId, Long userId, String before, int size){
+        validateUserCanAccessRoom(userId, roomId);
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, 100)));
+
+        if(before == null || before.isBlank()){
+            return messageRepository.findByChatRoomIdOrderBySentAtDescIdDesc(roomId, pageable);
+        }
+
+        LocalDateTime beforeSentAt;
+        Long beforeId;
+        int separator = before.lastIndexOf('_');
+        try{
+            if(separator > 0){
+                beforeSentAt = LocalDateTime.parse(before.substring(0, separator));
+                beforeId = Long.parseLong(before.substring(separator + 1));
+            }else{
+                beforeId = Long.parseLong(before.trim());
+                Message anchor = messageRepository.findById(beforeId)
+                        .filter(m -> roomId.equals(m.getChatRoomId()))
+                        .orElseThrow(() -> new RuntimeException("Message " + before + " not found in room " + roomId));
+                beforeSentAt = anchor.getSentAt();
+            }
+        }catch(NumberFormatException | DateTimeParseException e){
+            throw new RuntimeException("Invalid history cursor: " + before);
+        }
+        return messageRepository.findPageBefore(roomId, beforeSentAt, beforeId, pageable);
+    }
+
+    /** Cursor for the slice after this one, or null if this is the oldest. */
+    public static String nextCursor(Slice<Message> slice){
+        if(!slice.hasNext() || slice.getContent().isEmpty()){
+            return null;
+        }
+        Message last = slice.getContent().get(slice.getContent().size() - 1);
+        return last.getSentAt() + "_" + last.getId();
+    }
+
     public List<Message> getRecentMessages(Long roomId, Long userId, int limit){
         validateUserCanAccessRoom(userId, roomId);
         List<Message> recentMessages = messageRepository.findRecentMessagesInRoom(roomId, limit);
@@ -191,7 +232,7 @@ public class MessageService {
         Long senderId = message.getSenderId();
 
         boolean isSender = senderId.equals(userRequestingId) && senderId != null;
-        boolean isAdmin = chatParticipantRepository.isUserAdminInRoom(userRequestingId, roomId);
+        boolean isAdmin = membershipCache.isAdmin(userRequestingId, roomId);
 
         if (!isSender && !isAdmin) {
             throw new RuntimeException("Only message sender or room admin can delete messages");
@@ -222,6 +263,7 @@ public class MessageService {
     private void createSystemMessage(Long roomId, String content) {
         try {
             Message systemMessage = Message.builder()
+                .id(idGenerator.nextId())
                 .chatRoomId(roomId)
                 .content(content)
                 .messageType(MessageType.SYSTEM_MESSAGE)
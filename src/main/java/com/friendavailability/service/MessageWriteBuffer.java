@@ -0,0 +1,178 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.chat.MessageAckDto;
+import com.friendavailability.model.Message;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence for chat messages.
+ *
+ * Senders hand messages to a bounded ring buffer and broadcast them right away; a single
+ * writer thread drains the buffer in batches of up to {@code batch-size} and writes each batch with
+ * one JDBC batch insert, then hands the rooms' last activity to {@link RoomActivityTracker}.
+ * Every sender then gets an acknowledgement on {@code /user/queue/acks}. If a batch fails, its
+ * messages are retried one by one so a single bad row only fails itself.
+ *
+ * When the buffer stays full for longer than {@code offer-timeout-ms}, {@link #enqueue}
+ * refuses the message and the caller reports the error instead of broadcasting it.
+ */
+@Component
+public class MessageWriteBuffer {
+
+    private static final String INSERT_SQL = "INSERT INTO messages " +
+            "(id, content, message_type, sent_at, chat_room_id, sender_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RoomActivityTracker roomActivity;
+    private final BlockingQueue<Message> buffer;
+    private volatile Thread writer;
+
+    @Value("${app.chat.write-buffer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.chat.write-buffer.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    public MessageWriteBuffer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              SimpMessagingTemplate messagingTemplate, RoomActivityTracker roomActivity,
+                              @Value("${app.chat.write-buffer.capacity:8192}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.messagingTemplate = messagingTemplate;
+        this.roomActivity = roomActivity;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        System.out.println("MessageWriteBuffer created");
+    }
+
+    /** Queues a message with an assigned id; false if the buffer stayed full. */
+    public boolean enqueue(Message message) {
+        try {
+            return buffer.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        writer = new Thread(this::writeLoop, "message-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread current = writer;
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Whatever is still buffered was already broadcast, so write it before shutting down
+        List<Message> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        if (!remaining.isEmpty()) {
+            System.out.println("Flushed " + remaining.size() + " buffered messages on shutdown");
+        }
+    }
+
+    private void writeLoop() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(buffer.take());
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Error writing buffered messages: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Message> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            batch.forEach(this::persisted);
+        } catch (Exception e) {
+            System.err.println("Batch write of " + batch.size() + " messages failed, retrying one by one: " + e.getMessage());
+            for (Message message : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(message)));
+                    persisted(message);
+                } catch (Exception rowError) {
+                    System.err.println("Failed to write message " + message.getId() + ": " + rowError.getMessage());
+                    acknowledge(message, "Message could not be saved");
+                }
+            }
+        }
+    }
+
+    private void insert(List<Message> messages) {
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            rows.add(new Object[]{
+                    message.getId(),
+                    message.getContent(),
+                    message.getMessageType().name(),
+                    Timestamp.valueOf(message.getSentAt()),
+                    message.getChatRoomId(),
+                    message.getSenderId()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private void persisted(Message message) {
+        roomActivity.touch(message.getChatRoomId(), message.getSentAt());
+        acknowledge(message, null);
+    }
+
+    private void acknowledge(Message message, String error) {
+        if (message.getSenderId() == null) {
+            return;
+        }
+        try {
+            MessageAckDto ack = MessageAckDto.builder()
+                    .messageId(message.getId())
+                    .roomId(message.getChatRoomId())
+                    .status(error == null ? "PERSISTED" : "FAILED")
+                    .error(error)
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            messagingTemplate.convertAndSendToUser(message.getSenderId().toString(), "/queue/acks", ack);
+        } catch (Exception e) {
+            System.err.println("Error acknowledging message " + message.getId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.availability.ReminderDto;
+import com.friendavailability.model.Availability;
+import com.friendavailability.repository.AvailabilityRepository;
+import com.friendavailability.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fires availability reminders from an in-memory {@link DelayQueue}.
+ *
+ * Only reminders due within the next horizon are held in memory; the horizon and the
+ * {@code reminder_at} column are in UTC. On startup the queue is
+ * primed with one range scan over {@code reminder_at}, and the horizon is then extended a
+ * slice at a time, so the table is never polled as a whole. Writes enqueue their reminder
+ * directly once the transaction commits.
+ *
+ * Every availability id has a schedule version; rescheduling or cancelling bumps or drops
+ * it, and queued reminders with an outdated version are skipped when they come due. Recurring
+ * masters keep theirs until the series ends, which each horizon extension checks.
+ *
+ * The dispatcher thread only dequeues and publishes over WebSocket; reminder emails are handed
+ * to a small bounded pool so a slow mail server cannot hold up the reminders behind them.
+ */
+@Component
+@DependsOn("availabilityEpochBackfill")
+public class ReminderScheduler {
+
+    private final AvailabilityRepository availabilityRepository;
+    private final UserRepository userRepository;
+    private final EmailService emailService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final DelayQueue<PendingReminder> queue = new DelayQueue<>();
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    // Tracked recurring masters and the UTC epoch their series ends at (Long.MAX_VALUE if open-ended)
+    private final Map<Long, Long> seriesEnds = new ConcurrentHashMap<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    private volatile LocalDateTime primedUntil;
+    private volatile Thread dispatcher;
+    private volatile ExecutorService emailSender;
+
+    @Value("${app.availability.reminders.horizon-minutes:1440}")
+    private long horizonMinutes;
+
+    @Value("${app.availability.reminders.grace-minutes:5}")
+    private long graceMinutes;
+
+    @Value("${app.availability.reminders.email-enabled:false}")
+    private boolean emailEnabled;
+
+    @Value("${app.availability.reminders.email-threads:2}")
+    private int emailThreads;
+
+    @Value("${app.availability.reminders.email-queue-capacity:10000}")
+    private int emailQueueCapacity;
+
+    public ReminderScheduler(AvailabilityRepository availabilityRepository, UserRepository userRepository,
+                             EmailService emailService, SimpMessagingTemplate messagingTemplate) {
+        this.availabilityRepository = availabilityRepository;
+        this.userRepository = userRepository;
+        this.emailService = emailService;
+        this.messagingTemplate = messagingTemplate;
+        System.out.println("ReminderScheduler created");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // reminder_at of legacy rows is filled in by AvailabilityEpochBackfill, which runs first
+        LocalDateTime now = FreeBusyCalculator.nowUtc();
+        // Reminders missed by up to graceMinutes while the app was down are still sent.
+        try {
+            prime(now.minusMinutes(graceMinutes), now.plusMinutes(horizonMinutes));
+        } catch (Exception e) {
+            System.err.println("Error priming reminders: " + e.getMessage());
+        }
+
+        if (emailEnabled) {
+            AtomicLong threadCount = new AtomicLong();
+            emailSender = new ThreadPoolExecutor(emailThreads, emailThreads, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(emailQueueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "reminder-email-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        dispatcher = new Thread(this::dispatchLoop, "reminder-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        if (emailSender != null) {
+            emailSender.shutdownNow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.availability.reminders.prime-interval-ms:1800000}",
+            initialDelayString = "${app.availability.reminders.prime-interval-ms:1800000}")
+    public void extendHorizon() {
+        LocalDateTime from = primedUntil;
+        if (from == null) {
+            return;
+        }
+        LocalDateTime to = FreeBusyCalculator.nowUtc().plusMinutes(horizonMinutes);
+        if (to.isAfter(from)) {
+            prime(from, to);
+        }
+    }
+
+    /**
+     * Schedules (or reschedules) the reminder of a created or updated event once the
+     * transaction commits. Recurring masters schedule every occurrence inside the horizon.
+     */
+    public void schedule(Availability availability) {
+        Long id = availability.getId();
+        if (!availability.isRecurringMaster()) {
+            afterCommit(() -> track(availability));
+            return;
+        }
+
+        Set<LocalDateTime> overridden = new HashSet<>();
+        for (Availability override : availabilityRepository.findByRecurrenceParentIdIn(List.of(id))) {
+            overridden.add(override.getOriginalStartTime());
+        }
+        afterCommit(() -> {
+            long version = nextVersion();
+            versions.put(id, version);
+            seriesEnds.put(id, seriesEnd(availability));
+            LocalDateTime until = primedUntil;
+            if (until != null) {
+                enqueueOccurrences(availability, Map.of(id, overridden), FreeBusyCalculator.nowUtc(), until, version);
+            }
+        });
+    }
+
+    /**
+     * Same as {@link #schedule} for many rows, registering a single commit callback for all
+     * non-recurring ones.
+     */
+    public void scheduleAll(Collection<Availability> availabilities) {
+        List<Availability> single = new ArrayList<>(availabilities.size());
+        for (Availability availability : availabilities) {
+            if (availability.isRecurringMaster()) {
+                schedule(availability);
+            } else {
+                single.add(availability);
+            }
+        }
+        afterCommit(() -> single.forEach(this::track));
+    }
+
+    /** Replaces any queued reminder of the row; rows without one inside the horizon are not tracked. */
+    private void track(Availability availability) {
+        seriesEnds.remove(availability.getId());
+        long version = nextVersion();
+        versions.put(availability.getId(), version);
+        if (!enqueue(availability, availability.getStartTime(), version)) {
+            // Beyond the horizon: prime() picks the row up once its window is reached
+            versions.remove(availability.getId(), version);
+        }
+    }
+
+    public void cancel(Collection<Long> availabilityIds) {
+        afterCommit(() -> availabilityIds.forEach(id -> {
+            versions.remove(id);
+            seriesEnds.remove(id);
+        }));
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Loads every reminder due in [from, to). The horizon is moved first so that writes landing
+     * during the scan enqueue themselves; rows they already claimed are skipped here.
+     */
+    private synchronized void prime(LocalDateTime from, LocalDateTime to) {
+        primedUntil = to;
+        int loaded = 0;
+        dropEndedSeries(FreeBusyCalculator.toEpoch(FreeBusyCalculator.nowUtc()));
+
+        for (Availability availability : availabilityRepository.findRemindersDueBetween(from, to)) {
+            long version = nextVersion();
+            if (versions.putIfAbsent(availability.getId(), version) == null) {
+                if (enqueue(availability, availability.getStartTime(), version)) {
+                    loaded++;
+                } else {
+                    versions.remove(availability.getId(), version);
+                }
+            }
+        }
+
+        // Occurrences starting shortly after the window can still have their reminder inside it.
+        // Series that ended before the window cannot, so they are not loaded.
+        List<Availability> masters = availabilityRepository.findRecurringMastersWithReminders(
+                FreeBusyCalculator.toEpoch(to.plusDays(1)), FreeBusyCalculator.toEpoch(from));
+        if (!masters.isEmpty()) {
+            Map<Long, Set<LocalDateTime>> overridden = new HashMap<>();
+            List<Long> masterIds = masters.stream().map(Availability::getId).toList();
+            // Original start times are wall-clock times in the master's zone, hence the extra day either side
+            for (Availability override : availabilityRepository.findByRecurrenceParentIdInAndOriginalStartTimeBetween(
+                    masterIds, from.minusDays(1), to.plusDays(2))) {
+                overridden.computeIfAbsent(override.getRecurrenceParentId(), id -> new HashSet<>())
+                        .add(override.getOriginalStartTime());
+            }
+            for (Availability master : masters) {
+                long version = versions.computeIfAbsent(master.getId(), id -> nextVersion());
+                seriesEnds.putIfAbsent(master.getId(), seriesEnd(master));
+                loaded += enqueueOccurrences(master, overridden, from, to, version);
+            }
+        }
+
+        System.out.println("Primed " + loaded + " reminders due between " + from + " and " + to
+                + " (" + queue.size() + " pending)");
+    }
+
+    /** Forgets masters whose last occurrence is over; no reminder of theirs can be due anymore. */
+    private void dropEndedSeries(long nowEpoch) {
+        seriesEnds.forEach((id, end) -> {
+            if (end <= nowEpoch && seriesEnds.remove(id, end)) {
+                versions.remove(id);
+            }
+        });
+    }
+
+    private static long seriesEnd(Availability master) {
+        return master.getSeriesEndEpoch() != null ? master.getSeriesEndEpoch() : Long.MAX_VALUE;
+    }
+
+    /** Enqueues the occurrences of a master whose reminder falls in the UTC range [from, to). */
+    private int enqueueOccurrences(Availability master, Map<Long, Set<LocalDateTime>> overridden,
+                                   LocalDateTime from, LocalDateTime to, long version) {
+        long minutes = master.getReminderMinutes() != null ? master.getReminderMinutes() : 0;
+        long fromEpoch = FreeBusyCalculator.toEpoch(from);
+        long toEpoch = FreeBusyCalculator.toEpoch(to);
+        int count = 0;
+        for (Availability occurrence : AvailabilityIndex.expand(List.of(master), overridden,
+                from.plusMinutes(minutes), to.plusMinutes(minutes), false, null)) {
+            long remindAt = FreeBusyCalculator.startEpoch(occurrence) - minutes * 60;
+            if (remindAt >= fromEpoch && remindAt < toEpoch) {
+                count += enqueue(master, occurrence.getStartTime(), version) ? 1 : 0;
+            }
+        }
+        return count;
+    }
+
+    /** {@code startTime} is the wall-clock start in the event's own time zone. */
+    private boolean enqueue(Availability availability, LocalDateTime startTime, long version) {
+        if (availability.getReminderMinutes() == null) {
+            return false;
+        }
+        long startAt = Availability.epochOf(startTime, availability.getTimezone());
+        long remindAt = startAt - availability.getReminderMinutes() * 60L;
+        LocalDateTime until = primedUntil;
+        if (until == null || remindAt >= FreeBusyCalculator.toEpoch(until)
+                || startAt <= FreeBusyCalculator.toEpoch(FreeBusyCalculator.nowUtc())) {
+            return false;
+        }
+
+        ReminderDto reminder = ReminderDto.builder()
+                .availabilityId(availability.getId())
+                .title(availability.getTitle())
+                .location(availability.getLocation())
+                .startTime(startTime)
+                .endTime(startTime.plusSeconds(FreeBusyCalculator.toEpoch(availability.getEndTime())
+                        - FreeBusyCalculator.toEpoch(availability.getStartTime())))
+                .reminderMinutes(availability.getReminderMinutes())
+                .build();
+        long fireAt = remindAt * 1000;
+        queue.add(new PendingReminder(availability.getUserId(), reminder, version,
+                availability.isRecurringMaster(), fireAt));
+        return true;
+    }
+
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                dispatch(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Error dispatching reminder: " + e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(PendingReminder pending) {
+        ReminderDto reminder = pending.reminder;
+        Long id = reminder.getAvailabilityId();
+        Long current = versions.get(id);
+        if (current == null || current != pending.version) {
+            return;
+        }
+        if (!pending.recurring) {
+            versions.remove(id, current);
+        }
+
+        reminder.setSentAt(FreeBusyCalculator.nowUtc());
+        messagingTemplate.convertAndSendToUser(pending.userId.toString(), "/queue/reminders", reminder);
+        System.out.println("Sent reminder for availability " + id + " to user " + pending.userId);
+
+        ExecutorService sender = emailSender;
+        if (sender != null) {
+            try {
+                sender.execute(() -> sendEmail(pending.userId, reminder));
+            } catch (RejectedExecutionException e) {
+                System.err.println("Dropped reminder email for availability " + id + ": email queue is full");
+            }
+        }
+    }
+
+    private void sendEmail(Long userId, ReminderDto reminder) {
+        try {
+            userRepository.findById(userId).ifPresent(user -> emailService.sendReminderEmail(user, reminder));
+        } catch (Exception e) {
+            System.err.println("Error sending reminder email to user " + userId + ": " + e.getMessage());
+        }
+    }
+
+    private long nextVersion() {
+        return versionCounter.incrementAndGet();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class PendingReminder implements Delayed {
+        private final Long userId;
+        private final ReminderDto reminder;
+        private final long version;
+        private final boolean recurring;
+        private final long fireAtMillis;
+
+        private PendingReminder(Long userId, ReminderDto reminder, long version, boolean recurring, long fireAtMillis) {
+            this.userId = userId;
+            this.reminder = reminder;
+            this.version = version;
+            this.recurring = recurring;
+            this.fireAtMillis = fireAtMillis;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(fireAtMillis, ((PendingReminder) other).fireAtMillis);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.friendavailability.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Coalesces chat room "last activity" bumps.
+ *
+ * Every persisted message only records its room's newest timestamp in memory. A scheduled
+ * flush writes all pending rooms with one {@code UPDATE chat_rooms SET updated_at = CASE ...}
+ * per chunk, so a busy room costs one row update per flush instead of one per message.
+ * Until a value is flushed, {@link #lastActivity} lets readers see it so room lists stay in
+ * the right order.
+ */
+@Component
+public class RoomActivityTracker {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    @Value("${app.chat.room-activity.flush-chunk-size:500}")
+    private int chunkSize;
+
+    public RoomActivityTracker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        System.out.println("RoomActivityTracker created");
+    }
+
+    public void touch(Long roomId, LocalDateTime at) {
+        if (roomId == null || at == null) {
+            return;
+        }
+        pending.merge(roomId, at, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    /** Whether any room accepted by {@code rooms} has unflushed activity. */
+    public boolean hasPending(Predicate<Long> rooms) {
+        for (Long roomId : pending.keySet()) {
+            if (rooms.test(roomId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The room's last activity, taking unflushed activity into account. */
+    public LocalDateTime lastActivity(Long roomId, LocalDateTime stored) {
+        LocalDateTime unflushed = pending.get(roomId);
+        if (unflushed == null || (stored != null && !unflushed.isAfter(stored))) {
+            return stored;
+        }
+        return unflushed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.room-activity.flush-interval-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, LocalDateTime>> snapshot = new ArrayList<>(pending.size());
+        pending.forEach((roomId, at) -> snapshot.add(Map.entry(roomId, at)));
+
+        for (int from = 0; from < snapshot.size(); from += chunkSize) {
+            List<Map.Entry<Long, LocalDateTime>> chunk = snapshot.subList(from, Math.min(from + chunkSize, snapshot.size()));
+            try {
+                write(chunk);
+                // A room that got newer activity during the write stays pending for the next flush
+                chunk.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+            } catch (Exception e) {
+                System.err.println("Error flushing activity for " + chunk.size() + " chat rooms: " + e.getMessage());
+            }
+        }
+    }
+
+    private void write(List<Map.Entry<Long, LocalDateTime>> chunk) {
+        StringBuilder sql = new StringBuilder("UPDATE chat_rooms SET updated_at = GREATEST(updated_at, CASE id");
+        List<Object> args = new ArrayList<>(chunk.size() * 3);
+        for (Map.Entry<Long, LocalDateTime> entry : chunk) {
+            sql.append(" WHEN ? THEN ?");
+            args.add(entry.getKey());
+            args.add(Timestamp.valueOf(entry.getValue()));
+        }
+        sql.append(" END) WHERE id IN (")
+                .append(String.join(", ", Collections.nCopies(chunk.size(), "?")))
+                .append(")");
+        chunk.forEach(entry -> args.add(entry.getKey()));
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+}
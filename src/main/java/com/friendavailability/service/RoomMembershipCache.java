@@ -0,0 +1,143 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.ParticipantRole;
+import com.friendavailability.repository.ChatParticipantRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Active members and admins of each chat room, kept in memory so the chat hot paths (sending,
+ * typing, read receipts, connects) can authorize without a participant query.
+ *
+ * Each room is loaded once with a single projection query into two sorted {@code long[]}
+ * arrays. Anything that changes membership or roles must call {@link #invalidate}; the room
+ * is dropped right away and again once the surrounding transaction commits, so a reload that
+ * raced with the write cannot keep the old membership.
+ *
+ * Invalidation only reaches this instance, so entries also expire after {@code ttl-ms}: a
+ * removal or demotion on another instance takes effect here within that time. Denials and
+ * admin checks are re-read from the database, so a grant never waits for expiry and admin
+ * rights are never answered from a stale entry.
+ */
+@Component
+public class RoomMembershipCache {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final ChatParticipantRepository chatParticipantRepository;
+    private final Map<Long, Members> rooms = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; a load only caches its result if no invalidation happened meanwhile
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${app.chat.membership-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.chat.membership-cache.ttl-ms:30000}")
+    private long ttlMs;
+
+    public RoomMembershipCache(ChatParticipantRepository chatParticipantRepository) {
+        this.chatParticipantRepository = chatParticipantRepository;
+        System.out.println("RoomMembershipCache created");
+    }
+
+    public boolean isActive(Long userId, Long roomId) {
+        if (userId == null || roomId == null) {
+            return false;
+        }
+        return Arrays.binarySearch(members(roomId).active, userId) >= 0
+                || Arrays.binarySearch(reload(roomId).active, userId) >= 0;
+    }
+
+    public boolean isAdmin(Long userId, Long roomId) {
+        if (userId == null || roomId == null) {
+            return false;
+        }
+        return Arrays.binarySearch(reload(roomId).admins, userId) >= 0;
+    }
+
+    /**
+     * Memory-only membership hint: false only if a cached entry (possibly expired) lacks the
+     * user. Never queries the database, so it suits ordering decisions, not authorization.
+     */
+    public boolean mayBeActive(Long userId, Long roomId) {
+        Members cached = rooms.get(roomId);
+        return cached == null || Arrays.binarySearch(cached.active, userId) >= 0;
+    }
+
+    /** Throws unless the user is an active member of the room. */
+    public void requireActive(Long userId, Long roomId) {
+        if (!isActive(userId, roomId)) {
+            throw new RuntimeException("User " + userId + " is not authorised to access chat room " + roomId);
+        }
+    }
+
+    public void invalidate(Long roomId) {
+        evict(roomId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(roomId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long roomId) {
+        generation.incrementAndGet();
+        rooms.remove(roomId);
+    }
+
+    private Members members(Long roomId) {
+        Members cached = rooms.get(roomId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMs) {
+            return cached;
+        }
+        return reload(roomId);
+    }
+
+    /** Reads the room from the database and caches it unless an invalidation raced the read. */
+    private Members reload(Long roomId) {
+        long seen = generation.get();
+        Members loaded = load(roomId);
+        if (generation.get() == seen) {
+            if (rooms.size() >= maxSize) {
+                rooms.clear();
+            }
+            rooms.put(roomId, loaded);
+        }
+        return loaded;
+    }
+
+    private Members load(Long roomId) {
+        List<Object[]> rows = chatParticipantRepository.findActiveMemberRoles(roomId);
+        if (rows.isEmpty()) {
+            return new Members(EMPTY, EMPTY, System.currentTimeMillis());
+        }
+        long[] active = new long[rows.size()];
+        long[] admins = new long[rows.size()];
+        int adminCount = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            active[i] = ((Number) row[0]).longValue();
+            if (row[1] == ParticipantRole.ADMIN) {
+                admins[adminCount++] = active[i];
+            }
+        }
+        admins = Arrays.copyOf(admins, adminCount);
+        Arrays.sort(active);
+        Arrays.sort(admins);
+        return new Members(active, admins, System.currentTimeMillis());
+    }
+
+    private record Members(long[] active, long[] admins, long loadedAt) {
+    }
+}
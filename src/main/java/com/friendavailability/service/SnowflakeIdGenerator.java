@@ -0,0 +1,54 @@
+package com.friendavailability.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Snowflake-style 64-bit ids assigned in memory: 41 bits of milliseconds since 2024-01-01,
+ * 10 bits of worker id and a 12-bit per-millisecond sequence. Ids from one worker increase
+ * strictly, so they sort in creation order without a database round trip. They are well above
+ * 2^53, so JSON carries them as strings.
+ *
+ * The worker id has no default: two instances sharing one would hand out the same ids, so
+ * startup fails unless {@code app.chat.worker-id} is set.
+ *
+ * If the clock steps back, or the sequence runs out within a millisecond, the generator keeps
+ * counting on from the last timestamp it used instead of waiting.
+ */
+@Component
+public class SnowflakeIdGenerator {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long workerId;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator(@Value("${app.chat.worker-id}") long workerId) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER_ID);
+        }
+        this.workerId = workerId;
+        System.out.println("SnowflakeIdGenerator created for worker " + workerId);
+    }
+
+    public synchronized long nextId() {
+        long timestamp = System.currentTimeMillis() - EPOCH_MILLIS;
+        if (timestamp > lastTimestamp) {
+            lastTimestamp = timestamp;
+            sequence = 0;
+        } else {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                lastTimestamp++;
+            }
+        }
+        return (lastTimestamp << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,109 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.chat.TypingEventDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ephemeral typing indicators, handled entirely in memory.
+ *
+ * Typing events are coalesced per user and room: the first one is broadcast, and while the
+ * user keeps typing at most one more goes out every {@code min-interval-ms}, which keeps
+ * clients' indicators alive without a broadcast per keystroke. A stop is broadcast when the
+ * user says so, sends a message, or has been silent for {@code idle-timeout-ms}.
+ *
+ * Authorization comes from {@link RoomMembershipCache} and names from
+ * {@link UserDisplayNameCache}, so an event does not normally touch the database.
+ */
+@Service
+public class TypingIndicatorService {
+
+    private final RoomMembershipCache membershipCache;
+    private final UserDisplayNameCache displayNames;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<TypingKey, TypingState> typing = new ConcurrentHashMap<>();
+
+    @Value("${app.chat.typing.min-interval-ms:2500}")
+    private long minIntervalMs;
+
+    @Value("${app.chat.typing.idle-timeout-ms:6000}")
+    private long idleTimeoutMs;
+
+    public TypingIndicatorService(RoomMembershipCache membershipCache, UserDisplayNameCache displayNames,
+                                  SimpMessagingTemplate messagingTemplate) {
+        this.membershipCache = membershipCache;
+        this.displayNames = displayNames;
+        this.messagingTemplate = messagingTemplate;
+        System.out.println("TypingIndicatorService created");
+    }
+
+    /** Handles a client typing event; events from non-members are dropped. */
+    public void onTyping(Long userId, Long roomId, boolean isTyping) {
+        if (!membershipCache.isActive(userId, roomId)) {
+            return;
+        }
+        if (!isTyping) {
+            stopTyping(userId, roomId);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean[] broadcast = {false};
+        typing.compute(new TypingKey(roomId, userId), (key, state) -> {
+            if (state == null || now - state.lastSent() >= minIntervalMs) {
+                broadcast[0] = true;
+                return new TypingState(now, now);
+            }
+            return new TypingState(state.lastSent(), now);
+        });
+        if (broadcast[0]) {
+            broadcast(roomId, userId, true);
+        }
+    }
+
+    /** Clears the user's indicator, broadcasting a stop only if one was showing. */
+    public void stopTyping(Long userId, Long roomId) {
+        if (userId == null || roomId == null) {
+            return;
+        }
+        if (typing.remove(new TypingKey(roomId, userId)) != null) {
+            broadcast(roomId, userId, false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.typing.sweep-interval-ms:1000}")
+    public void expireIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        typing.forEach((key, state) -> {
+            // remove(key, state) fails if the user typed again since this snapshot
+            if (state.lastSeen() < cutoff && typing.remove(key, state)) {
+                broadcast(key.roomId(), key.userId(), false);
+            }
+        });
+    }
+
+    private void broadcast(Long roomId, Long userId, boolean isTyping) {
+        try {
+            TypingEventDto event = TypingEventDto.builder()
+                    .userId(userId)
+                    .userName(displayNames.nameOf(userId))
+                    .isTyping(isTyping)
+                    .build();
+            messagingTemplate.convertAndSend("/topic/chat/" + roomId + "/typing", event);
+        } catch (Exception e) {
+            System.err.println("Error broadcasting typing indicator: " + e.getMessage());
+        }
+    }
+
+    private record TypingKey(Long roomId, Long userId) {
+    }
+
+    private record TypingState(long lastSent, long lastSeen) {
+    }
+}
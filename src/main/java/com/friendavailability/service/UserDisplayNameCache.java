@@ -0,0 +1,96 @@
+package com.friendavailability.service;
+
+import com.friendavailability.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * User display names for chat payloads (message broadcasts, typing indicators) and the friends
+ * availability feed, so they do not load a whole user row per event. A miss reads only the
+ * name column.
+ *
+ * Renaming or deleting a user must call {@link #evict}; like {@link RoomMembershipCache}, the
+ * entry is dropped right away and again after the transaction completes.
+ */
+@Component
+public class UserDisplayNameCache {
+
+    private static final String UNKNOWN_USER = "Unknown User";
+
+    private final UserRepository userRepository;
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    @Value("${app.users.name-cache.max-size:100000}")
+    private int maxSize;
+
+    public UserDisplayNameCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+        System.out.println("UserDisplayNameCache created");
+    }
+
+    public String nameOf(Long userId) {
+        if (userId == null) {
+            return UNKNOWN_USER;
+        }
+        String cached = names.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        String name = userRepository.findNameById(userId).orElse(null);
+        if (name == null) {
+            return UNKNOWN_USER;
+        }
+        if (names.size() >= maxSize) {
+            names.clear();
+        }
+        names.put(userId, name);
+        return name;
+    }
+
+    /** Names of several users; misses are read together in one query. Unknown users are left out. */
+    public Map<Long, String> namesOf(Collection<Long> userIds) {
+        Map<Long, String> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            String cached = names.get(userId);
+            if (cached != null) {
+                result.put(userId, cached);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            if (names.size() + missing.size() > maxSize) {
+                names.clear();
+            }
+            for (Object[] row : userRepository.findNamesByIds(missing)) {
+                if (row[1] != null) {
+                    result.put((Long) row[0], (String) row[1]);
+                    names.put((Long) row[0], (String) row[1]);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void evict(Long userId) {
+        names.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    names.remove(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.User;
+import com.friendavailability.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which user ids exist, so write paths that only need the foreign key can attach a
+ * {@link UserRepository#getReferenceById} proxy instead of loading the whole user row.
+ *
+ * Only positive answers are cached; a miss falls through to an {@code existsById} query.
+ * Deleting a user must call {@link #evict}.
+ */
+@Component
+public class UserExistenceCache {
+
+    private final UserRepository userRepository;
+    private final Set<Long> knownIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.users.existence-cache.max-size:100000}")
+    private int maxSize;
+
+    public UserExistenceCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+        System.out.println("UserExistenceCache created");
+    }
+
+    public boolean exists(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (knownIds.contains(userId)) {
+            return true;
+        }
+        if (!userRepository.existsById(userId)) {
+            return false;
+        }
+        if (knownIds.size() >= maxSize) {
+            knownIds.clear();
+        }
+        knownIds.add(userId);
+        return true;
+    }
+
+    /** An uninitialized proxy for an existing user; throws if the user does not exist. */
+    public User requireReference(Long userId) {
+        if (!exists(userId)) {
+            throw new RuntimeException("User not found with id " + userId);
+        }
+        return userRepository.getReferenceById(userId);
+    }
+
+    public void evict(Long userId) {
+        knownIds.remove(userId);
+    }
+}
@@ -18,6 +18,12 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserExistenceCache userExistenceCache;
+
+    @Autowired
+    private UserDisplayNameCache userDisplayNameCache;
+
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     public User createUser(String name, String email) {
@@ -154,6 +160,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        userDisplayNameCache.evict(id);
         System.out.println("User updated: " + updatedUser);
         return Optional.of(updatedUser);
     }
@@ -184,6 +191,8 @@ public class UserService {
 
         if (userRepository.existsById(id)) {
             userRepository.deleteById(id);
+            userExistenceCache.evict(id);
+            userDisplayNameCache.evict(id);
             System.out.println("Deleted user with id: " + id);
             return true;
         } else {
@@ -0,0 +1,48 @@
+package com.friendavailability.dto.chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.friendavailability.config.JacksonConfig;
+import com.friendavailability.service.SnowflakeIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageResponseDtoTest {
+
+    private final ObjectMapper mapper = new JacksonConfig().objectMapper();
+
+    @Test
+    void messageIdsRoundTripAsStrings() throws Exception {
+        long id = new SnowflakeIdGenerator(5).nextId();
+        assertTrue(id > (1L << 53));
+
+        MessageResponseDto response = MessageResponseDto.builder()
+                .id(id)
+                .senderId(1L)
+                .roomId(2L)
+                .content("hi")
+                .messageType("TEXT")
+                .sentAt(LocalDateTime.of(2024, 6, 1, 12, 0))
+                .build();
+
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(response));
+        assertTrue(json.get("id").isTextual());
+        assertEquals(Long.toString(id), json.get("id").asText());
+        assertTrue(json.get("roomId").isNumber());
+        assertEquals(response, mapper.treeToValue(json, MessageResponseDto.class));
+    }
+
+    @Test
+    void ackMessageIdIsAString() throws Exception {
+        long id = new SnowflakeIdGenerator(5).nextId();
+        MessageAckDto ack = MessageAckDto.builder().messageId(id).roomId(2L).status("PERSISTED").build();
+
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(ack));
+        assertEquals(Long.toString(id), json.get("messageId").textValue());
+        assertEquals(ack, mapper.treeToValue(json, MessageAckDto.class));
+    }
+}
@@ -0,0 +1,132 @@
+package com.friendavailability.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurrenceRuleTest {
+
+    private static final long ONE_HOUR = 3600;
+
+    private static LocalDateTime at(int month, int day, int hour) {
+        return LocalDateTime.of(2024, month, day, hour, 0);
+    }
+
+    private static List<LocalDateTime> expand(String rule, LocalDateTime dtStart, long durationSeconds,
+                                              LocalDateTime from, LocalDateTime to) {
+        return RecurrenceRule.parse(rule, ZoneOffset.UTC).occurrences(dtStart, durationSeconds, from, to, false);
+    }
+
+    @Test
+    void countLimitsDailySeries() {
+        List<LocalDateTime> starts = expand("FREQ=DAILY;COUNT=3", at(1, 1, 9), ONE_HOUR, at(1, 1, 0), at(12, 31, 0));
+
+        assertEquals(List.of(at(1, 1, 9), at(1, 2, 9), at(1, 3, 9)), starts);
+    }
+
+    @Test
+    void countIsHonouredWhenWindowStartsMidSeries() {
+        List<LocalDateTime> starts = expand("FREQ=DAILY;COUNT=10", at(1, 1, 9), ONE_HOUR, at(1, 8, 0), at(2, 1, 0));
+
+        assertEquals(List.of(at(1, 8, 9), at(1, 9, 9), at(1, 10, 9)), starts);
+    }
+
+    @Test
+    void untilIncludesTheLastMatchingOccurrence() {
+        List<LocalDateTime> starts = expand("RRULE:FREQ=WEEKLY;UNTIL=20240122T090000Z",
+                at(1, 1, 9), ONE_HOUR, at(1, 1, 0), at(3, 1, 0));
+
+        assertEquals(List.of(at(1, 1, 9), at(1, 8, 9), at(1, 15, 9), at(1, 22, 9)), starts);
+    }
+
+    @Test
+    void utcUntilIsReadInTheSeriesZone() {
+        // 08:00Z is 09:00 in Berlin, so the 22nd is the last occurrence there but not in UTC
+        RecurrenceRule berlin = RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=20240122T080000Z", ZoneId.of("Europe/Berlin"));
+        RecurrenceRule utc = RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=20240122T080000Z", ZoneOffset.UTC);
+
+        assertEquals(at(1, 22, 9), berlin.lastStart(at(1, 1, 9)));
+        assertEquals(List.of(at(1, 1, 9), at(1, 8, 9), at(1, 15, 9)),
+                utc.occurrences(at(1, 1, 9), ONE_HOUR, at(1, 1, 0), at(3, 1, 0), false));
+    }
+
+    @Test
+    void dateOnlyUntilCoversTheWholeDay() {
+        List<LocalDateTime> starts = expand("FREQ=DAILY;UNTIL=20240103", at(1, 1, 18), ONE_HOUR, at(1, 1, 0), at(2, 1, 0));
+
+        assertEquals(List.of(at(1, 1, 18), at(1, 2, 18), at(1, 3, 18)), starts);
+    }
+
+    @Test
+    void byDayExpandsEachListedWeekdayFromTheFirstOccurrence() {
+        // 2024-01-03 is a Wednesday, so the Monday of its first week is skipped
+        List<LocalDateTime> starts = expand("FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=5",
+                at(1, 3, 9), ONE_HOUR, at(1, 1, 0), at(3, 1, 0));
+
+        assertEquals(List.of(at(1, 3, 9), at(1, 5, 9), at(1, 8, 9), at(1, 10, 9), at(1, 12, 9)), starts);
+    }
+
+    @Test
+    void byDayWithCountCountsOccurrencesBeforeTheWindow() {
+        List<LocalDateTime> starts = expand("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=4",
+                at(1, 1, 9), ONE_HOUR, at(1, 9, 0), at(2, 1, 0));
+
+        assertEquals(List.of(at(1, 10, 9)), starts);
+    }
+
+    @Test
+    void byDayWithIntervalSkipsToDistantWindow() {
+        List<LocalDateTime> starts = expand("FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,TH",
+                at(1, 2, 9), ONE_HOUR, at(3, 1, 0), at(4, 1, 0));
+
+        assertEquals(List.of(at(3, 12, 9), at(3, 14, 9), at(3, 26, 9), at(3, 28, 9)), starts);
+    }
+
+    @Test
+    void monthlyCountSkipsMonthsWithoutTheDay() {
+        List<LocalDateTime> starts = expand("FREQ=MONTHLY;COUNT=3", at(1, 31, 9), ONE_HOUR, at(1, 1, 0), at(12, 31, 0));
+
+        assertEquals(List.of(at(1, 31, 9), at(3, 31, 9), at(5, 31, 9)), starts);
+    }
+
+    @Test
+    void occurrenceRunningIntoTheWindowIsIncluded() {
+        List<LocalDateTime> starts = expand("FREQ=DAILY", at(1, 1, 23), 2 * ONE_HOUR, at(1, 2, 0), at(1, 2, 12));
+
+        assertEquals(List.of(at(1, 1, 23)), starts);
+    }
+
+    @Test
+    void inclusiveWindowKeepsOccurrencesTouchingTheBoundaries() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY", ZoneOffset.UTC);
+
+        List<LocalDateTime> exclusive = rule.occurrences(at(1, 1, 9), ONE_HOUR, at(1, 2, 10), at(1, 3, 9), false);
+        List<LocalDateTime> inclusive = rule.occurrences(at(1, 1, 9), ONE_HOUR, at(1, 2, 10), at(1, 3, 9), true);
+
+        assertTrue(exclusive.isEmpty());
+        assertEquals(List.of(at(1, 2, 9), at(1, 3, 9)), inclusive);
+    }
+
+    @Test
+    void lastStartIsKnownOnlyForBoundedSeries() {
+        assertEquals(at(1, 5, 9), RecurrenceRule.parse("FREQ=DAILY;COUNT=5", ZoneOffset.UTC).lastStart(at(1, 1, 9)));
+        assertEquals(at(1, 22, 9), RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=20240122T090000Z", ZoneOffset.UTC).lastStart(at(1, 1, 9)));
+        assertEquals(null, RecurrenceRule.parse("FREQ=DAILY", ZoneOffset.UTC).lastStart(at(1, 1, 9)));
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThrows(RuntimeException.class, () -> RecurrenceRule.parse("COUNT=3", ZoneOffset.UTC));
+        assertThrows(RuntimeException.class, () -> RecurrenceRule.parse("FREQ=DAILY;COUNT=3;UNTIL=20240110", ZoneOffset.UTC));
+        assertThrows(RuntimeException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO", ZoneOffset.UTC));
+        assertThrows(RuntimeException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=XX", ZoneOffset.UTC));
+        assertThrows(RuntimeException.class, () -> RecurrenceRule.parse("FREQ=DAILY;INTERVAL=0", ZoneOffset.UTC));
+    }
+}
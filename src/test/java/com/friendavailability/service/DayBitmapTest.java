@@ -0,0 +1,90 @@
+package com.friendavailability.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DayBitmapTest {
+
+    private static final long DAY = DayBitmap.SECONDS_PER_DAY;
+    private static final long QUARTER = DayBitmap.BUCKET_SECONDS;
+    // Midnight of an arbitrary day, as epoch seconds
+    private static final long MIDNIGHT = 19_786 * DAY;
+
+    @Test
+    void marksEveryBucketTheRangeTouches() {
+        long[] days = new long[2];
+
+        // 00:10-00:40 touches the first three quarters
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT + 10 * 60, MIDNIGHT + 40 * 60);
+
+        assertArrayEquals(new long[]{0b111, 0}, days);
+    }
+
+    @Test
+    void rangeEndingOnABucketBoundaryLeavesTheNextBucketFree() {
+        long[] days = new long[2];
+
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT + QUARTER, MIDNIGHT + 2 * QUARTER);
+
+        assertArrayEquals(new long[]{0b10, 0}, days);
+    }
+
+    @Test
+    void bucketsFromSixtyFourOnGoToTheSecondLong() {
+        long[] days = new long[2];
+
+        // Buckets 63 and 64 are 15:45-16:15
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT + 63 * QUARTER, MIDNIGHT + 65 * QUARTER);
+
+        assertArrayEquals(new long[]{1L << 63, 1}, days);
+    }
+
+    @Test
+    void rangesAreClippedAndSplitAcrossDays() {
+        long[] days = new long[4];
+
+        // From before the first day to 00:15 of the second, then from 23:45 of the second day on
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT - DAY, MIDNIGHT + DAY + QUARTER);
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT + 2 * DAY - QUARTER, MIDNIGHT + 5 * DAY);
+
+        assertArrayEquals(new long[]{-1L, (1L << 32) - 1, 1, 1L << 31}, days);
+    }
+
+    @Test
+    void emptyAndOutOfRangeIntervalsMarkNothing() {
+        long[] days = new long[2];
+
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT + 100, MIDNIGHT + 100);
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT + DAY, MIDNIGHT + 2 * DAY);
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT - DAY, MIDNIGHT);
+
+        assertArrayEquals(new long[2], days);
+    }
+
+    @Test
+    void hexHasOneCharacterPerHourLowestBitFirst() {
+        long[] days = new long[2];
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT, MIDNIGHT + QUARTER);
+        DayBitmap.scatter(days, MIDNIGHT, MIDNIGHT + 23 * 4 * QUARTER + 3 * QUARTER, MIDNIGHT + DAY);
+
+        String hex = DayBitmap.toHex(days[0], days[1]);
+
+        assertEquals(24, hex.length());
+        assertEquals("1" + "0".repeat(22) + "8", hex);
+    }
+
+    @Test
+    void andAndOrCombineDays() {
+        long[] everyone = {0b1100, 0b1};
+        long[] anyone = everyone.clone();
+        long[] other = {0b1010, 0b10};
+
+        DayBitmap.and(everyone, other);
+        DayBitmap.or(anyone, other);
+
+        assertArrayEquals(new long[]{0b1000, 0}, everyone);
+        assertArrayEquals(new long[]{0b1110, 0b11}, anyone);
+    }
+}
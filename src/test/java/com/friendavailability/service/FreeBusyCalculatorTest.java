@@ -0,0 +1,119 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FreeBusyCalculatorTest {
+
+    private static Availability event(LocalDateTime start, LocalDateTime end, boolean busy, String timezone) {
+        return Availability.builder().startTime(start).endTime(end).isBusy(busy).timezone(timezone).build();
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(2024, 3, 4, hour, minute);
+    }
+
+    @Test
+    void mergeJoinsOverlappingAndTouchingPairs() {
+        long[] merged = FreeBusyCalculator.merge(new long[]{0, 10, 5, 20, 20, 30, 40, 50, 45, 48});
+
+        assertArrayEquals(new long[]{0, 30, 40, 50}, merged);
+    }
+
+    @Test
+    void mergeKeepsDisjointPairsAndEmptyInput() {
+        assertArrayEquals(new long[]{0, 10, 11, 20}, FreeBusyCalculator.merge(new long[]{0, 10, 11, 20}));
+        assertArrayEquals(new long[0], FreeBusyCalculator.merge(new long[0]));
+    }
+
+    @Test
+    void gapsCoverTheWindowOutsideBusyTime() {
+        long[] busy = {10, 20, 30, 40};
+
+        assertArrayEquals(new long[]{0, 10, 20, 30, 40, 50}, FreeBusyCalculator.gaps(busy, 0, 50, 0));
+        assertArrayEquals(new long[]{20, 30}, FreeBusyCalculator.gaps(busy, 10, 40, 0));
+        assertArrayEquals(new long[]{0, 50}, FreeBusyCalculator.gaps(new long[0], 0, 50, 0));
+        assertArrayEquals(new long[0], FreeBusyCalculator.gaps(new long[]{0, 50}, 0, 50, 0));
+    }
+
+    @Test
+    void gapsShorterThanTheMinimumAreDropped() {
+        long[] busy = {10, 20, 25, 40};
+
+        assertArrayEquals(new long[]{0, 10, 40, 50}, FreeBusyCalculator.gaps(busy, 0, 50, 10));
+        assertArrayEquals(new long[0], FreeBusyCalculator.gaps(busy, 0, 50, 11));
+    }
+
+    @Test
+    void encodeClipsToTheWindowSortsAndSkipsFreeEvents() {
+        List<Availability> events = List.of(
+                event(at(12, 0), at(13, 0), true, "UTC"),
+                event(at(8, 0), at(10, 0), true, "UTC"),
+                event(at(10, 0), at(11, 0), false, "UTC"),
+                event(at(20, 0), at(21, 0), true, "UTC"));
+        long from = FreeBusyCalculator.toEpoch(at(9, 0));
+        long to = FreeBusyCalculator.toEpoch(at(18, 0));
+
+        long[] busy = FreeBusyCalculator.encode(events, from, to, true);
+
+        assertArrayEquals(new long[]{from, FreeBusyCalculator.toEpoch(at(10, 0)),
+                FreeBusyCalculator.toEpoch(at(12, 0)), FreeBusyCalculator.toEpoch(at(13, 0))}, busy);
+        assertEquals(6, FreeBusyCalculator.encode(events, from, to, false).length);
+    }
+
+    @Test
+    void encodeReadsEachEventInItsOwnZone() {
+        // 09:00 in Berlin (UTC+1 in March) is 08:00 UTC
+        long[] busy = FreeBusyCalculator.encode(List.of(event(at(9, 0), at(10, 0), true, "Europe/Berlin")),
+                FreeBusyCalculator.toEpoch(at(0, 0)), FreeBusyCalculator.toEpoch(at(23, 0)), true);
+
+        assertArrayEquals(new long[]{FreeBusyCalculator.toEpoch(at(8, 0)), FreeBusyCalculator.toEpoch(at(9, 0))}, busy);
+    }
+
+    @Test
+    void mergedGapsMatchAMinuteByMinuteSweep() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            int pairs = random.nextInt(20);
+            long[] busy = new long[pairs * 2];
+            boolean[] covered = new boolean[200];
+            for (int i = 0; i < pairs; i++) {
+                long start = random.nextInt(190);
+                long end = start + 1 + random.nextInt(10);
+                busy[i * 2] = start;
+                busy[i * 2 + 1] = end;
+                for (long t = start; t < end; t++) {
+                    covered[(int) t] = true;
+                }
+            }
+            FreeBusyCalculator.sortPairs(busy);
+            long[] free = FreeBusyCalculator.gaps(FreeBusyCalculator.merge(busy), 0, 200, 0);
+
+            boolean[] isFree = new boolean[200];
+            for (int i = 0; i < free.length; i += 2) {
+                for (long t = free[i]; t < free[i + 1]; t++) {
+                    isFree[(int) t] = true;
+                }
+            }
+            for (int t = 0; t < 200; t++) {
+                assertEquals(!covered[t], isFree[t], "round " + round + " minute " + t);
+            }
+        }
+    }
+
+    @Test
+    void sortPairsKeepsEachStartWithItsEnd() {
+        long[] pairs = {30, 35, 10, 15, 20, 29, 0, 1};
+
+        FreeBusyCalculator.sortPairs(pairs);
+
+        assertArrayEquals(new long[]{0, 1, 10, 15, 20, 29, 30, 35}, pairs);
+    }
+}
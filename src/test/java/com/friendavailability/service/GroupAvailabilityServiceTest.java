@@ -0,0 +1,207 @@
+package com.friendavailability.service;
+
+import com.friendavailability.dto.availability.AvailabilityHeatmapDto;
+import com.friendavailability.dto.availability.MeetingSlotDto;
+import com.friendavailability.model.Availability;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class GroupAvailabilityServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    private final Map<Long, List<Availability>> events = new HashMap<>();
+    private final GroupAvailabilityService service = new GroupAvailabilityService(new FixedIndex(events), null);
+    private long nextId = 1;
+
+    private void busy(long userId, LocalDateTime start, LocalDateTime end) {
+        events.computeIfAbsent(userId, id -> new ArrayList<>()).add(Availability.builder()
+                .id(nextId++)
+                .startTime(start)
+                .endTime(end)
+                .isBusy(true)
+                .build());
+    }
+
+    private static LocalDateTime at(int day, int hour, int minute) {
+        return DAY.plusDays(day).atTime(hour, minute);
+    }
+
+    @Test
+    void partialHoursCountAsBusyAndExactBoundariesDoNot() {
+        busy(1, at(0, 9, 30), at(0, 10, 15));
+        busy(2, at(0, 10, 0), at(0, 11, 0));
+
+        int[] free = service.getAvailabilityHeatmap(List.of(1L, 2L), null, DAY, DAY).getFree()[0];
+
+        assertEquals(2, free[8]);
+        assertEquals(1, free[9]);
+        assertEquals(0, free[10]);
+        assertEquals(2, free[11]);
+    }
+
+    @Test
+    void oneUserIsNeverCountedTwiceForASharedHour() {
+        busy(1, at(0, 9, 30), at(0, 10, 15));
+        busy(1, at(0, 10, 45), at(0, 12, 0));
+
+        int[] free = service.getAvailabilityHeatmap(List.of(1L, 2L), null, DAY, DAY).getFree()[0];
+
+        assertEquals(1, free[9]);
+        assertEquals(1, free[10]);
+        assertEquals(1, free[11]);
+        assertEquals(2, free[12]);
+    }
+
+    @Test
+    void eventsAreClippedToTheRangeAndCarriedAcrossMidnight() {
+        busy(1, at(-1, 22, 0), at(0, 1, 0));
+        busy(2, at(0, 23, 30), at(1, 0, 30));
+        busy(3, at(1, 23, 0), at(2, 3, 0));
+
+        AvailabilityHeatmapDto heatmap = service.getAvailabilityHeatmap(List.of(1L, 2L, 3L), null, DAY, DAY.plusDays(1));
+        int[][] free = heatmap.getFree();
+
+        assertEquals(2, free.length);
+        assertEquals(2, free[0][0]);
+        assertEquals(3, free[0][1]);
+        assertEquals(2, free[0][23]);
+        assertEquals(2, free[1][0]);
+        assertEquals(3, free[1][1]);
+        assertEquals(2, free[1][23]);
+    }
+
+    @Test
+    void matchesAPerHourCountOnRandomCalendars() {
+        Random random = new Random(7);
+        List<Long> users = new ArrayList<>();
+        for (long user = 1; user <= 8; user++) {
+            users.add(user);
+            for (int i = 0; i < 20; i++) {
+                LocalDateTime start = at(-1, 0, 0).plusMinutes(random.nextInt(5 * 24 * 60));
+                busy(user, start, start.plusMinutes(1 + random.nextInt(300)));
+            }
+        }
+
+        int[][] free = service.getAvailabilityHeatmap(users, null, DAY, DAY.plusDays(2)).getFree();
+
+        for (int day = 0; day < 3; day++) {
+            int[] expected = new int[24];
+            for (int hour = 0; hour < 24; hour++) {
+                LocalDateTime from = at(day, hour, 0);
+                LocalDateTime to = from.plusHours(1);
+                for (Long user : users) {
+                    boolean isBusy = events.get(user).stream()
+                            .anyMatch(event -> event.getStartTime().isBefore(to) && event.getEndTime().isAfter(from));
+                    expected[hour] += isBusy ? 0 : 1;
+                }
+            }
+            assertArrayEquals(expected, free[day], "day " + day);
+        }
+    }
+
+    @Test
+    void largeGroupOverTheLongestRangeStaysFast() {
+        Random random = new Random(11);
+        List<Long> users = new ArrayList<>();
+        for (long user = 1; user <= 100; user++) {
+            users.add(user);
+            for (int i = 0; i < 2000; i++) {
+                LocalDateTime start = at(0, 0, 0).plusMinutes(random.nextInt(92 * 24 * 60));
+                busy(user, start, start.plusMinutes(15 + random.nextInt(120)));
+            }
+        }
+
+        int[][] free = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> service.getAvailabilityHeatmap(users, null, DAY, DAY.plusDays(91)).getFree());
+
+        assertEquals(92, free.length);
+    }
+
+    @Test
+    void meetingTimesRankEveryoneFreeFirstThenEarliest() {
+        busy(1, at(0, 9, 0), at(0, 12, 0));
+        busy(2, at(0, 13, 0), at(0, 17, 0));
+
+        List<MeetingSlotDto> slots = service.findBestMeetingTimes(List.of(1L, 2L, 3L), null,
+                at(0, 9, 0), at(0, 17, 0), 60, null, null, 3);
+
+        assertEquals(3, slots.size());
+        assertEquals(at(0, 12, 0), slots.get(0).getStartTime());
+        assertEquals(at(0, 13, 0), slots.get(0).getEndTime());
+        assertEquals(3, slots.get(0).getAvailableCount());
+        assertEquals(List.of(1L, 2L, 3L), slots.get(0).getAvailableUserIds());
+        // Two free: the earliest start, then the first quarter-hour after everyone stops being free
+        assertEquals(at(0, 9, 0), slots.get(1).getStartTime());
+        assertEquals(List.of(2L, 3L), slots.get(1).getAvailableUserIds());
+        assertEquals(at(0, 12, 15), slots.get(2).getStartTime());
+        assertEquals(List.of(1L, 3L), slots.get(2).getAvailableUserIds());
+    }
+
+    @Test
+    void meetingTimesPreferTheRequestedHoursOnEveryDay() {
+        List<MeetingSlotDto> slots = service.findBestMeetingTimes(List.of(1L, 2L), null,
+                at(0, 0, 0), at(2, 0, 0), 60, LocalTime.of(14, 0), LocalTime.of(15, 0), 3);
+
+        assertEquals(2, slots.size());
+        assertEquals(at(0, 14, 0), slots.get(0).getStartTime());
+        assertEquals(at(1, 14, 0), slots.get(1).getStartTime());
+        assertEquals(0, slots.get(0).getMinutesFromPreferred());
+        assertEquals(2, slots.get(0).getAvailableCount());
+    }
+
+    @Test
+    void meetingTimesOutsideThePreferredHoursAreRankedByDistance() {
+        busy(1, at(0, 13, 0), at(0, 16, 0));
+
+        List<MeetingSlotDto> slots = service.findBestMeetingTimes(List.of(1L), null,
+                at(0, 9, 0), at(0, 17, 0), 60, LocalTime.of(14, 0), LocalTime.of(15, 0), 5);
+
+        assertEquals(2, slots.size());
+        assertEquals(at(0, 12, 0), slots.get(0).getStartTime());
+        assertEquals(120, slots.get(0).getMinutesFromPreferred());
+        assertEquals(at(0, 16, 0), slots.get(1).getStartTime());
+        assertEquals(120, slots.get(1).getMinutesFromPreferred());
+    }
+
+    @Test
+    void meetingTimesNeedAGapAsLongAsTheMeeting() {
+        busy(1, at(0, 9, 0), at(0, 12, 0));
+        busy(1, at(0, 12, 45), at(0, 17, 0));
+
+        List<MeetingSlotDto> slots = service.findBestMeetingTimes(List.of(1L), null,
+                at(0, 9, 0), at(0, 17, 0), 60, null, null, 5);
+
+        assertEquals(List.of(), slots);
+    }
+
+    /** Serves each user's events from memory instead of loading them from the database. */
+    private static final class FixedIndex extends AvailabilityIndex {
+        private final Map<Long, List<Availability>> events;
+
+        FixedIndex(Map<Long, List<Availability>> events) {
+            super(null);
+            this.events = events;
+        }
+
+        @Override
+        public List<Availability> findOverlapping(Long userId, LocalDateTime start, LocalDateTime end, boolean inclusive) {
+            List<Availability> sorted = new ArrayList<>(events.getOrDefault(userId, List.of()));
+            sorted.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.friendavailability.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ICalendarReaderTest {
+
+    private static List<ICalendarReader.Event> read(String... lines) throws IOException {
+        List<ICalendarReader.Event> events = new ArrayList<>();
+        ICalendarReader.read(new StringReader(String.join("\r\n", lines) + "\r\n"), events::add);
+        return events;
+    }
+
+    private static ICalendarReader.Event readOne(String... lines) throws IOException {
+        List<ICalendarReader.Event> events = read(lines);
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+
+    @Test
+    void unfoldsContinuationLines() throws IOException {
+        ICalendarReader.Event event = readOne(
+                "BEGIN:VCALENDAR",
+                "BEGIN:VEVENT",
+                "UID:folded-1",
+                "DTSTART:20240310T090000Z",
+                "SUMMARY:Quarterly planning ",
+                " with the whole",
+                "\t team",
+                "DESCRIPTION:Line one\\nLine two",
+                "END:VEVENT",
+                "END:VCALENDAR");
+
+        assertEquals("Quarterly planning with the whole team", event.getSummary());
+        assertEquals("Line one\nLine two", event.getDescription());
+    }
+
+    @Test
+    void unescapesCommasSemicolonsAndBackslashes() throws IOException {
+        ICalendarReader.Event event = readOne(
+                "BEGIN:VEVENT",
+                "DTSTART:20240310T090000Z",
+                "SUMMARY:Lunch\\, then coffee\\; maybe",
+                "LOCATION:C:\\\\Office\\, 2nd floor",
+                "END:VEVENT");
+
+        assertEquals("Lunch, then coffee; maybe", event.getSummary());
+        assertEquals("C:\\Office, 2nd floor", event.getLocation());
+    }
+
+    @Test
+    void allDayEventEndsOnTheLastIncludedDay() throws IOException {
+        ICalendarReader.Event event = readOne(
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20240310",
+                "DTEND;VALUE=DATE:20240312",
+                "END:VEVENT");
+
+        assertTrue(event.isAllDay());
+        assertEquals(LocalDateTime.of(2024, 3, 10, 0, 0), event.getStart());
+        assertEquals(LocalDateTime.of(2024, 3, 11, 23, 59), event.getEnd());
+    }
+
+    @Test
+    void allDayEventWithoutEndLastsOneDay() throws IOException {
+        ICalendarReader.Event event = readOne(
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20240310",
+                "END:VEVENT");
+
+        assertTrue(event.isAllDay());
+        assertEquals(LocalDateTime.of(2024, 3, 10, 23, 59), event.getEnd());
+    }
+
+    @Test
+    void durationDeterminesTheEnd() throws IOException {
+        List<ICalendarReader.Event> events = read(
+                "BEGIN:VEVENT",
+                "DTSTART:20240310T090000Z",
+                "DURATION:PT1H30M",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART;VALUE=DATE:20240310",
+                "DURATION:P2D",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART:20240310T090000Z",
+                "DURATION:P1W",
+                "END:VEVENT");
+
+        assertEquals(3, events.size());
+        assertEquals(LocalDateTime.of(2024, 3, 10, 10, 30), events.get(0).getEnd());
+        assertEquals(LocalDateTime.of(2024, 3, 11, 23, 59), events.get(1).getEnd());
+        assertEquals(LocalDateTime.of(2024, 3, 17, 9, 0), events.get(2).getEnd());
+    }
+
+    @Test
+    void endInAnotherZoneIsMovedIntoTheStartZone() throws IOException {
+        ICalendarReader.Event event = readOne(
+                "BEGIN:VEVENT",
+                "DTSTART;TZID=\"Europe/Berlin\":20240710T090000",
+                "DTEND:20240710T090000Z",
+                "END:VEVENT");
+
+        assertEquals("Europe/Berlin", event.getTimezone());
+        assertEquals(LocalDateTime.of(2024, 7, 10, 9, 0), event.getStart());
+        assertEquals(LocalDateTime.of(2024, 7, 10, 11, 0), event.getEnd());
+    }
+
+    @Test
+    void readsRecurrenceTransparencyAndAlarm() throws IOException {
+        ICalendarReader.Event event = readOne(
+                "BEGIN:VEVENT",
+                "UID:series-1",
+                "DTSTART:20240310T090000Z",
+                "DTEND:20240310T100000Z",
+                "RRULE:FREQ=WEEKLY;BYDAY=MO,WE;COUNT=6",
+                "SUMMARY:Standup",
+                "TRANSP:TRANSPARENT",
+                "BEGIN:VALARM",
+                "ACTION:DISPLAY",
+                "DESCRIPTION:Not the event description",
+                "TRIGGER:-PT15M",
+                "END:VALARM",
+                "END:VEVENT");
+
+        assertEquals("series-1", event.getUid());
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=6", event.getRecurrenceRule());
+        assertTrue(event.isTransparent());
+        assertFalse(event.isCancelled());
+        assertNull(event.getDescription());
+        assertEquals(15, event.getReminderMinutes());
+    }
+
+    @Test
+    void skipsOtherComponentsAndCountsMalformedEvents() throws IOException {
+        List<ICalendarReader.Event> events = new ArrayList<>();
+        String calendar = String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VTIMEZONE",
+                "TZID:Europe/Berlin",
+                "BEGIN:STANDARD",
+                "DTSTART:19701025T030000",
+                "END:STANDARD",
+                "END:VTIMEZONE",
+                "BEGIN:VEVENT",
+                "SUMMARY:No start",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART:not-a-date",
+                "END:VEVENT",
+                "BEGIN:VEVENT",
+                "DTSTART:20240310T090000Z",
+                "SUMMARY:Valid",
+                "END:VEVENT",
+                "END:VCALENDAR");
+
+        int malformed = ICalendarReader.read(new StringReader(calendar), events::add);
+
+        assertEquals(2, malformed);
+        assertEquals(1, events.size());
+        assertEquals("Valid", events.get(0).getSummary());
+    }
+}
@@ -0,0 +1,201 @@
+package com.friendavailability.service;
+
+import com.friendavailability.model.Availability;
+import com.friendavailability.model.RecurrenceRule;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ICalendarWriterTest {
+
+    private static String export(Availability... availabilities) throws IOException {
+        StringWriter out = new StringWriter();
+        ICalendarWriter writer = new ICalendarWriter(out);
+        writer.begin("Test calendar");
+        for (Availability availability : availabilities) {
+            writer.write(availability);
+        }
+        writer.end();
+        return out.toString();
+    }
+
+    private static List<ICalendarReader.Event> reimport(String calendar) throws IOException {
+        List<ICalendarReader.Event> events = new ArrayList<>();
+        int malformed = ICalendarReader.read(new StringReader(calendar), events::add);
+        assertEquals(0, malformed);
+        return events;
+    }
+
+    private static Availability.AvailabilityBuilder timed(long id, LocalDateTime start, LocalDateTime end) {
+        return Availability.builder()
+                .id(id)
+                .userId(1L)
+                .startTime(start)
+                .endTime(end)
+                .isBusy(true)
+                .reminderMinutes(null);
+    }
+
+    @Test
+    void escapesTextValues() throws IOException {
+        String calendar = export(timed(1, LocalDateTime.of(2024, 3, 10, 9, 0), LocalDateTime.of(2024, 3, 10, 10, 0))
+                .title("Lunch, then coffee; maybe")
+                .description("C:\\Office\nsecond line")
+                .build());
+
+        assertTrue(calendar.contains("\r\nSUMMARY:Lunch\\, then coffee\\; maybe\r\n"));
+        assertTrue(calendar.contains("\r\nDESCRIPTION:C:\\\\Office\\nsecond line\r\n"));
+    }
+
+    @Test
+    void foldsLongLinesAtSeventyFiveOctets() throws IOException {
+        String title = "Überraschungsparty für das ganze Team, mit Kuchen; Musik und 🎉 ".repeat(4);
+        String calendar = export(timed(1, LocalDateTime.of(2024, 3, 10, 9, 0), LocalDateTime.of(2024, 3, 10, 10, 0))
+                .title(title)
+                .build());
+
+        assertTrue(calendar.endsWith("\r\n"));
+        String[] lines = calendar.split("\r\n");
+        boolean folded = false;
+        for (String line : lines) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+            assertFalse(line.contains("\n") || line.contains("\r"), line);
+            folded |= line.startsWith(" ");
+        }
+        assertTrue(folded);
+    }
+
+    @Test
+    void writesZonedTimesWithTzidUtcTimesWithZAndAllDayEventsAsDates() throws IOException {
+        String calendar = export(
+                timed(1, LocalDateTime.of(2024, 7, 10, 9, 0), LocalDateTime.of(2024, 7, 10, 10, 0))
+                        .timezone("Europe/Berlin")
+                        .build(),
+                timed(2, LocalDateTime.of(2024, 3, 10, 0, 0), LocalDateTime.of(2024, 3, 11, 23, 59))
+                        .isAllDay(true)
+                        .build(),
+                timed(3, LocalDateTime.of(2024, 7, 11, 9, 0), LocalDateTime.of(2024, 7, 11, 10, 0))
+                        .timezone("UTC")
+                        .build());
+
+        assertTrue(calendar.contains("\r\nDTSTART;TZID=Europe/Berlin:20240710T090000\r\n" +
+                "DTEND;TZID=Europe/Berlin:20240710T100000\r\n"));
+        assertTrue(calendar.contains("\r\nDTSTART;VALUE=DATE:20240310\r\nDTEND;VALUE=DATE:20240312\r\n"));
+        assertTrue(calendar.contains("\r\nDTSTART:20240711T090000Z\r\nDTEND:20240711T100000Z\r\n"));
+    }
+
+    @Test
+    void writesEachZoneOnceBeforeItsFirstEvent() throws IOException {
+        String calendar = export(
+                timed(1, LocalDateTime.of(2024, 7, 10, 9, 0), LocalDateTime.of(2024, 7, 10, 10, 0))
+                        .timezone("Europe/Berlin")
+                        .build(),
+                timed(2, LocalDateTime.of(2024, 7, 11, 9, 0), LocalDateTime.of(2024, 7, 11, 10, 0))
+                        .timezone("Europe/Berlin")
+                        .build(),
+                timed(3, LocalDateTime.of(2024, 7, 12, 9, 0), LocalDateTime.of(2024, 7, 12, 10, 0))
+                        .timezone("UTC")
+                        .build());
+
+        int zone = calendar.indexOf("BEGIN:VTIMEZONE\r\nTZID:Europe/Berlin\r\n");
+        assertTrue(zone >= 0 && zone < calendar.indexOf("BEGIN:VEVENT"));
+        assertEquals(zone, calendar.lastIndexOf("BEGIN:VTIMEZONE"));
+        // Current EU rule: summer time from the last Sunday of March, +0100 -> +0200
+        assertTrue(calendar.contains("RRULE:FREQ=YEARLY;BYMONTH=3;BYDAY=SU;BYMONTHDAY=25,26,27,28,29,30,31\r\n" +
+                "TZOFFSETFROM:+0100\r\nTZOFFSETTO:+0200\r\nEND:DAYLIGHT\r\n"));
+        assertEquals(3, reimport(calendar).size());
+    }
+
+    @Test
+    void zonedSeriesKeepsItsLocalTimeAcrossDst() throws IOException {
+        // Berlin switches to summer time on 2024-03-31; the 09:00 standup stays at 09:00 local
+        Availability standup = timed(1, LocalDateTime.of(2024, 3, 25, 9, 0), LocalDateTime.of(2024, 3, 25, 9, 15))
+                .timezone("Europe/Berlin")
+                .isRecurring(true)
+                .recurrenceRule("FREQ=WEEKLY;COUNT=4")
+                .build();
+        Availability moved = timed(2, LocalDateTime.of(2024, 4, 1, 10, 0), LocalDateTime.of(2024, 4, 1, 10, 15))
+                .timezone("Europe/Berlin")
+                .recurrenceParentId(1L)
+                .originalStartTime(LocalDateTime.of(2024, 4, 1, 9, 0))
+                .build();
+
+        String calendar = export(standup, moved);
+        assertTrue(calendar.contains("\r\nRECURRENCE-ID;TZID=Europe/Berlin:20240401T090000\r\n"));
+
+        List<ICalendarReader.Event> events = reimport(calendar);
+        assertEquals("Europe/Berlin", events.get(0).getTimezone());
+        assertEquals(standup.getStartTime(), events.get(0).getStart());
+        List<LocalDateTime> starts = RecurrenceRule.parse(events.get(0).getRecurrenceRule(), ZoneId.of(events.get(0).getTimezone()))
+                .occurrences(events.get(0).getStart(), 900, LocalDateTime.of(2024, 3, 1, 0, 0),
+                        LocalDateTime.of(2024, 5, 1, 0, 0), false);
+        assertTrue(starts.contains(events.get(1).getRecurrenceId()));
+    }
+
+    @Test
+    void exportedCalendarReadsBackUnchanged() throws IOException {
+        Availability meeting = timed(1, LocalDateTime.of(2024, 7, 10, 9, 0), LocalDateTime.of(2024, 7, 10, 10, 30))
+                .timezone("Europe/Berlin")
+                .title("Planning, part 2; bring notes — " + "x".repeat(80))
+                .description("Agenda:\n1. Budget\n2. Hiring")
+                .location("Room 4, Building B")
+                .reminderMinutes(15)
+                .build();
+        Availability holiday = timed(2, LocalDateTime.of(2024, 3, 10, 0, 0), LocalDateTime.of(2024, 3, 11, 23, 59))
+                .isAllDay(true)
+                .isBusy(false)
+                .title("Long weekend")
+                .build();
+        Availability standup = timed(3, LocalDateTime.of(2024, 1, 1, 9, 0), LocalDateTime.of(2024, 1, 1, 9, 15))
+                .isRecurring(true)
+                .recurrenceRule("RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=12")
+                .title("Standup")
+                .build();
+        Availability movedStandup = timed(4, LocalDateTime.of(2024, 1, 3, 10, 0), LocalDateTime.of(2024, 1, 3, 10, 15))
+                .recurrenceParentId(3L)
+                .originalStartTime(LocalDateTime.of(2024, 1, 3, 9, 0))
+                .title("Standup")
+                .build();
+
+        List<ICalendarReader.Event> events = reimport(export(meeting, holiday, standup, movedStandup));
+
+        assertEquals(4, events.size());
+
+        ICalendarReader.Event first = events.get(0);
+        assertEquals(ICalendarWriter.uid(meeting), first.getUid());
+        assertEquals(meeting.getTitle(), first.getSummary());
+        assertEquals(meeting.getDescription(), first.getDescription());
+        assertEquals(meeting.getLocation(), first.getLocation());
+        assertEquals("Europe/Berlin", first.getTimezone());
+        assertEquals(meeting.getStartTime(), first.getStart());
+        assertEquals(meeting.getEndTime(), first.getEnd());
+        assertFalse(first.isTransparent());
+        assertEquals(15, first.getReminderMinutes());
+
+        ICalendarReader.Event second = events.get(1);
+        assertTrue(second.isAllDay());
+        assertTrue(second.isTransparent());
+        assertEquals(holiday.getStartTime(), second.getStart());
+        assertEquals(holiday.getEndTime(), second.getEnd());
+
+        ICalendarReader.Event third = events.get(2);
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=12", third.getRecurrenceRule());
+        assertEquals(standup.getStartTime(), third.getStart());
+
+        ICalendarReader.Event fourth = events.get(3);
+        assertEquals(third.getUid(), fourth.getUid());
+        assertEquals(movedStandup.getOriginalStartTime(), fourth.getRecurrenceId());
+        assertEquals(movedStandup.getStartTime(), fourth.getStart());
+    }
+}
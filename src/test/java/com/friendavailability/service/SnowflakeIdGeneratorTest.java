@@ -0,0 +1,74 @@
+package com.friendavailability.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int IDS = 200_000;
+
+    private static long timestampOf(long id) {
+        return id >>> 22;
+    }
+
+    private static long workerOf(long id) {
+        return (id >>> 12) & 1023;
+    }
+
+    private static long sequenceOf(long id) {
+        return id & 4095;
+    }
+
+    @Test
+    void idsIncreaseStrictlyAndCarryTheWorkerId() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1023);
+
+        long previous = generator.nextId();
+        for (int i = 1; i < IDS; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "id " + i + " did not increase");
+            assertEquals(1023, workerOf(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void exhaustedSequenceMovesOnToTheNextMillisecondInsteadOfRepeating() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7);
+        long before = System.currentTimeMillis() - EPOCH_MILLIS;
+
+        // Far more ids than one millisecond holds, generated in far fewer milliseconds
+        Map<Long, Integer> perMillisecond = new HashMap<>();
+        long last = 0;
+        for (int i = 0; i < IDS; i++) {
+            last = generator.nextId();
+            perMillisecond.merge(timestampOf(last), 1, Integer::sum);
+        }
+        long after = System.currentTimeMillis() - EPOCH_MILLIS;
+
+        perMillisecond.values().forEach(count -> assertTrue(count <= 4096));
+        assertTrue(timestampOf(last) >= before);
+        // Borrowing milliseconds never runs further ahead than the ids needed
+        assertTrue(timestampOf(last) <= after + IDS / 4096 + 1);
+        assertTrue(sequenceOf(last) < 4096);
+    }
+
+    @Test
+    void idsNeedMoreThanFiftyThreeBits() {
+        assertTrue(new SnowflakeIdGenerator(0).nextId() > (1L << 53));
+    }
+
+    @Test
+    void rejectsWorkerIdsOutsideTenBits() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+}